@@ -1,15 +1,21 @@
 package de.shogundb;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class ShogunDBApplication {
     /**
      * Runs the spring application.
@@ -38,15 +44,14 @@ public class ShogunDBApplication {
     }
 
     /**
-     * An own implementation of the h2 'DATEDIFF' method (which doesn't work properly). Calculates the period of time
-     * between date one and two.
+     * Creates the thread pool the branches of wide conditions are executed on in parallel. Every thread borrows its
+     * own database connection, so the parallelism should be lower than the size of the connection pool.
      *
-     * @param unit  the unit ('YEARS', 'MONTH' or 'DAYS')
-     * @param date1 the lower date
-     * @param date2 the upper date
-     * @return the number of days/months/years between the two dates
+     * @param parallelism the number of threads
+     * @return a fixed thread pool
      */
-    public static long period(String unit, java.sql.Date date1, java.sql.Date date2) {
-        return java.time.temporal.ChronoUnit.valueOf(unit).between(date1.toLocalDate(), date2.toLocalDate());
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService conditionExecutor(@Value("${shogundb.conditions.parallelism:4}") int parallelism) {
+        return Executors.newFixedThreadPool(parallelism);
     }
 }
@@ -1,14 +1,14 @@
 package de.shogundb.authentication;
 
-import de.shogundb.domain.token.Token;
+import de.shogundb.domain.token.CachedToken;
+import de.shogundb.domain.token.SignedTokenService;
+import de.shogundb.domain.token.TokenCache;
 import de.shogundb.domain.token.TokenRepository;
-import de.shogundb.domain.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -17,19 +17,24 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Component
 public class TokenFilter extends OncePerRequestFilter {
     private final TokenRepository tokenRepository;
-    private final AuthenticationManager authenticationManager;
+    private final TokenCache tokenCache;
+    private final SignedTokenService signedTokenService;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
     @Autowired
-    @Lazy
-    public TokenFilter(TokenRepository tokenRepository, AuthenticationManager authenticationManager) {
+    public TokenFilter(
+            TokenRepository tokenRepository,
+            TokenCache tokenCache,
+            SignedTokenService signedTokenService) {
         this.tokenRepository = tokenRepository;
-        this.authenticationManager = authenticationManager;
+        this.tokenCache = tokenCache;
+        this.signedTokenService = signedTokenService;
     }
 
     @Override
@@ -45,7 +50,10 @@ public class TokenFilter extends OncePerRequestFilter {
 
         final String plaintToken = header.replace("Bearer ", "");
 
-        Optional<Token> tokenOptional = this.tokenRepository.findByToken(plaintToken);
+        // signed tokens are verified in memory, random tokens are loaded from the database, if they are not cached
+        Optional<CachedToken> tokenOptional = signedTokenService.isSigned(plaintToken)
+                ? signedTokenService.verify(plaintToken)
+                : this.tokenCache.get(plaintToken, tokenRepository::findByToken);
 
         // return if the token doesn't exist
         if (!tokenOptional.isPresent()) {
@@ -53,24 +61,26 @@ public class TokenFilter extends OncePerRequestFilter {
             return;
         }
 
-        Token token = tokenOptional.get();
+        CachedToken token = tokenOptional.get();
 
-        // return if token is already expired
-        if (new Date().after(token.getExpireDate())) {
-            // delete the expired token
-            tokenRepository.delete(token);
+        // return if token is already expired (expired tokens are deleted by the TokenSweeper)
+        if (token.isExpired()) {
+            tokenCache.evict(plaintToken);
 
             filterChain.doFilter(request, response);
             return;
         }
 
-        User user = token.getUser();
+        // the token has already proven the identity of the user, so the user is authenticated without loading the user
+        // and checking the password again
+        User principal = new User(token.getUsername(), "", List.of());
+        PreAuthenticatedAuthenticationToken authentication = new PreAuthenticatedAuthenticationToken(
+                principal,
+                null,
+                principal.getAuthorities());
+        authentication.setDetails(authenticationDetailsSource.buildDetails(request));
 
-        Authentication authenticationToken = new UsernamePasswordAuthenticationToken(
-                user.getUsername(),
-                user.getPassword());
-
-        SecurityContextHolder.getContext().setAuthentication(authenticationManager.authenticate(authenticationToken));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
 
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,31 @@
+package de.shogundb.conditions;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * An entity listener, which invalidates the cached condition results, when an entity the conditions depend on is
+ * written.
+ */
+public class ConditionCacheInvalidator {
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        ConditionResultCache.invalidate();
+
+        // results loaded before the commit may still contain the old data
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    ConditionResultCache.invalidate();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package de.shogundb.conditions;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConditionCacheStatistics {
+    /**
+     * The number of results served from the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of results loaded from the database.
+     */
+    private long misses;
+
+    /**
+     * The number of currently cached results.
+     */
+    private int size;
+}
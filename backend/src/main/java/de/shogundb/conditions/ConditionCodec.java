@@ -0,0 +1,232 @@
+package de.shogundb.conditions;
+
+import de.shogundb.conditions.statements.*;
+import de.shogundb.domain.seminar.SeminarType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encodes condition trees to a compact binary form and decodes them again. The encoded trees can be stored instead of
+ * the json in the conditions of a graduation and are loaded without parsing any json.
+ * <p>
+ * Every condition is written as the ordinal of its condition type, followed by its values (enums are written as their
+ * ordinal). AND and OR conditions are followed by the number of nested conditions and the nested conditions itself,
+ * NOT conditions by the negated condition. New condition types must be appended to ConditionType, so the ordinals of
+ * the stored conditions stay valid.
+ * The binary form is stored as a base64 string with the prefix "base64:", so it can be told apart from json.
+ */
+public class ConditionCodec {
+    /**
+     * The prefix of all encoded condition trees.
+     */
+    public static final String PREFIX = "base64:";
+
+    /**
+     * The version of the binary form (the first byte of every encoded condition tree).
+     */
+    private static final int VERSION = 1;
+
+    private ConditionCodec() {
+    }
+
+    /**
+     * Checks, if the given stored conditions are encoded (otherwise they are json).
+     *
+     * @param value the stored conditions
+     * @return true, if the conditions are encoded by this codec
+     */
+    public static boolean isEncoded(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    /**
+     * Encodes the given condition tree.
+     *
+     * @param condition the condition tree to encode
+     * @return the encoded condition tree (including the prefix)
+     */
+    public static String encode(Condition condition) {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            write(output, condition);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes an encoded condition tree.
+     *
+     * @param value the encoded condition tree (including the prefix)
+     * @return the decoded condition tree
+     * @throws IllegalArgumentException if the value is not a valid encoded condition tree (the decoded conditions are
+     *                                  validated like the json conditions)
+     */
+    public static Condition decode(String value) {
+        if (!isEncoded(value)) {
+            throw new IllegalArgumentException("The conditions are not encoded");
+        }
+
+        var bytes = Base64.getUrlDecoder().decode(value.substring(PREFIX.length()));
+        try (var input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (input.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException("Unknown version of the encoded conditions");
+            }
+
+            var condition = read(input, 1);
+            if (input.available() > 0) {
+                throw new IllegalArgumentException("Unexpected data after the encoded conditions");
+            }
+            return condition;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid encoded conditions", e);
+        }
+    }
+
+    private static void write(DataOutputStream output, Condition condition) throws IOException {
+        if (condition instanceof AgeCondition) {
+            var age = (AgeCondition) condition;
+            output.writeByte(ConditionType.AGE.ordinal());
+            output.writeInt(age.getMinAge());
+            output.writeInt(age.getMaxAge());
+        } else if (condition instanceof AndCondition) {
+            output.writeByte(ConditionType.AND.ordinal());
+            writeConditions(output, ((AndCondition) condition).getConditions());
+        } else if (condition instanceof GraduationCondition) {
+            var graduation = (GraduationCondition) condition;
+            output.writeByte(ConditionType.GRADUATION.ordinal());
+            output.writeLong(graduation.getId());
+            output.writeInt(graduation.getPeriod());
+            output.writeByte(graduation.getPeriodFormat().ordinal());
+        } else if (condition instanceof MembershipCondition) {
+            var membership = (MembershipCondition) condition;
+            output.writeByte(ConditionType.MEMBERSHIP.ordinal());
+            output.writeInt(membership.getPeriod());
+            output.writeByte(membership.getPeriodFormat().ordinal());
+        } else if (condition instanceof OrCondition) {
+            output.writeByte(ConditionType.OR.ordinal());
+            writeConditions(output, ((OrCondition) condition).getConditions());
+        } else if (condition instanceof SeminarCondition) {
+            var seminar = (SeminarCondition) condition;
+            output.writeByte(ConditionType.SEMINAR.ordinal());
+            output.writeInt(seminar.getQuantity());
+            output.writeByte(seminar.getSeminarType().ordinal());
+            output.writeInt(seminar.getPeriod());
+            output.writeByte(seminar.getPeriodFormat().ordinal());
+        } else if (condition instanceof DisciplineCondition) {
+            output.writeByte(ConditionType.DISCIPLINE.ordinal());
+            output.writeLong(((DisciplineCondition) condition).getId());
+        } else if (condition instanceof EventCondition) {
+            output.writeByte(ConditionType.EVENT.ordinal());
+            output.writeLong(((EventCondition) condition).getId());
+        } else if (condition instanceof ChampionshipCondition) {
+            var championship = (ChampionshipCondition) condition;
+            output.writeByte(ConditionType.CHAMPIONSHIP.ordinal());
+            output.writeLong(championship.getId() != null ? championship.getId() : 0L);
+            output.writeInt(championship.getRank());
+        } else if (condition instanceof NotCondition) {
+            output.writeByte(ConditionType.NOT.ordinal());
+            write(output, ((NotCondition) condition).getCondition());
+        } else {
+            throw new IllegalArgumentException("Unknown condition " + condition);
+        }
+    }
+
+    private static void writeConditions(DataOutputStream output, List<Condition> conditions) throws IOException {
+        output.writeInt(conditions.size());
+        for (var condition : conditions) {
+            write(output, condition);
+        }
+    }
+
+    private static Condition read(DataInputStream input, int depth) throws IOException {
+        if (depth > ConditionDeserializer.MAX_DEPTH) {
+            throw new IllegalArgumentException("The conditions are nested too deeply");
+        }
+
+        var type = valueOf(ConditionType.values(), input.readUnsignedByte());
+        Condition condition;
+        switch (type) {
+            case AGE:
+                condition = new AgeCondition(input.readInt(), input.readInt());
+                break;
+            case AND:
+                condition = new AndCondition(readConditions(input, depth + 1));
+                break;
+            case GRADUATION:
+                condition = new GraduationCondition(
+                        input.readLong(),
+                        input.readInt(),
+                        valueOf(PeriodFormat.values(), input.readUnsignedByte()));
+                break;
+            case MEMBERSHIP:
+                condition = new MembershipCondition(
+                        input.readInt(),
+                        valueOf(PeriodFormat.values(), input.readUnsignedByte()));
+                break;
+            case OR:
+                condition = new OrCondition(readConditions(input, depth + 1));
+                break;
+            case SEMINAR:
+                condition = new SeminarCondition(
+                        input.readInt(),
+                        valueOf(SeminarType.values(), input.readUnsignedByte()),
+                        input.readInt(),
+                        valueOf(PeriodFormat.values(), input.readUnsignedByte()));
+                break;
+            case DISCIPLINE:
+                condition = new DisciplineCondition(input.readLong());
+                break;
+            case EVENT:
+                condition = new EventCondition(input.readLong());
+                break;
+            case CHAMPIONSHIP:
+                // an id of 0 means any championship
+                var championshipId = input.readLong();
+                condition = new ChampionshipCondition(championshipId != 0L ? championshipId : null, input.readInt());
+                break;
+            case NOT:
+                condition = new NotCondition(read(input, depth + 1));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown condition type");
+        }
+
+        // the decoded values must pass the same validation as the json
+        if (!ConditionDeserializer.isValid(condition)) {
+            throw new IllegalArgumentException("Invalid " + type + " condition");
+        }
+        return condition;
+    }
+
+    private static ArrayList<Condition> readConditions(DataInputStream input, int depth) throws IOException {
+        var count = input.readInt();
+        if (count < 0 || count > input.available()) {
+            throw new IllegalArgumentException("Invalid number of nested conditions");
+        }
+
+        var conditions = new ArrayList<Condition>(count);
+        for (int i = 0; i < count; i++) {
+            conditions.add(read(input, depth));
+        }
+        return conditions;
+    }
+
+    private static <T> T valueOf(T[] values, int ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
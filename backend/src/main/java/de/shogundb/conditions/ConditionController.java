@@ -1,25 +1,59 @@
 package de.shogundb.conditions;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.shogundb.domain.member.Member;
+import de.shogundb.domain.member.MemberListDTO;
 import de.shogundb.domain.member.MemberRepository;
+import de.shogundb.domain.member.MemberSummaryDTO;
+import de.shogundb.domain.seminar.SeminarType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/con")
+@Validated
 public class ConditionController {
+    /**
+     * The maximum number of members of a page.
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The maximum number of conditions evaluated by one batch request.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService conditionExecutor;
+    private final ConditionGuard conditionGuard;
 
     @PersistenceContext
     private EntityManager em;
@@ -27,28 +61,317 @@ public class ConditionController {
     @Value("${spring.jpa.database}")
     private String databaseType;
 
+    @Value("${shogundb.conditions.subquery-mode:CORRELATED}")
+    private SubqueryMode subqueryMode;
+
+    @Value("${shogundb.conditions.fetch-size:500}")
+    private int fetchSize;
+
     @Autowired
-    public ConditionController(MemberRepository memberRepository) {
+    public ConditionController(
+            JdbcTemplate jdbcTemplate,
+            MemberRepository memberRepository,
+            MembershipIndex membershipIndex,
+            ObjectMapper objectMapper,
+            ExecutorService conditionExecutor,
+            ConditionGuard conditionGuard) {
+        this.jdbcTemplate = jdbcTemplate;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
+        this.objectMapper = objectMapper;
+        this.conditionExecutor = conditionExecutor;
+        this.conditionGuard = conditionGuard;
     }
 
     /**
      * An endpoint to test the condition functionality.
      *
      * @param condition all conditions
+     * @param parallel  true, to execute the branches of a top level AND or OR condition in parallel
      * @return a HTTP OK with a list of all members matching the conditions
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     * @throws ConditionTimeoutException      thrown, if a query has been cancelled by the timeout
      */
     @PostMapping
-    public ResponseEntity<List<Member>> test(@RequestBody @Valid MainCondition condition) {
-        var query = em.createNativeQuery(condition.getSQLQuery(DatabaseType.valueOf(databaseType)), Member.class);
+    public ResponseEntity<List<Member>> test(
+            @RequestBody @Valid MainCondition condition,
+            @RequestParam(defaultValue = "false") boolean parallel)
+            throws ConditionTooExpensiveException, ConditionTimeoutException {
+        conditionGuard.check(condition);
+
+        var database = DatabaseType.valueOf(databaseType);
+        var memberIds = conditionGuard.execute(() -> parallel
+                ? condition.getMemberIds(jdbcTemplate, conditionExecutor, database, subqueryMode)
+                : condition.getMemberIds(em, database, subqueryMode));
+
+        var members = new ArrayList<Member>();
+        memberRepository.findAllById(memberIds).forEach(members::add);
+
+        return ResponseEntity.ok().body(members);
+    }
 
-        System.out.println(condition.getSQLQuery(DatabaseType.valueOf(databaseType)));
-        var res = query.getResultList();
+    /**
+     * An endpoint to explain the query of the conditions. Every node of the condition tree is counted separately, so
+     * slow branches can be found.
+     *
+     * @param condition all conditions
+     * @return a HTTP OK with the generated sql, the execution plan and the row count and time of every condition
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     * @throws ConditionTimeoutException      thrown, if a query has been cancelled by the timeout
+     */
+    @PostMapping("/explain")
+    public ResponseEntity<ConditionExplanation> explain(@RequestBody @Valid MainCondition condition)
+            throws ConditionTooExpensiveException, ConditionTimeoutException {
+        conditionGuard.check(condition);
+
+        var profiler = new ConditionProfiler(em, DatabaseType.valueOf(databaseType), subqueryMode, LocalDate.now());
+
+        return ResponseEntity.ok(conditionGuard.execute(() -> profiler.explain(condition)));
+    }
+
+    /**
+     * An endpoint to encode the conditions to the compact binary form, which can be stored in the conditions of a
+     * graduation instead of the json.
+     *
+     * @param condition all conditions
+     * @return a HTTP OK with the encoded conditions
+     */
+    @PostMapping("/encode")
+    public ResponseEntity<String> encode(@RequestBody @Valid MainCondition condition) {
+        return ResponseEntity.ok(ConditionCodec.encode(condition.getCondition()));
+    }
+
+    /**
+     * An endpoint to evaluate the conditions against an in-memory snapshot of all members. The snapshot is loaded with
+     * a few plain scans, so no correlated subqueries are executed per member.
+     *
+     * @param condition all conditions
+     * @return a HTTP OK with a list of all members matching the conditions
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     */
+    @PostMapping("/memory")
+    public ResponseEntity<List<Member>> testInMemory(@RequestBody @Valid MainCondition condition)
+            throws ConditionTooExpensiveException {
+        conditionGuard.check(condition);
+
+        var referenceDate = LocalDate.now();
+        var memberIds = ConditionResultCache.getMemberIds(
+                ConditionOptimizer.optimize(condition.getCondition()),
+                referenceDate,
+                () -> condition.getMemberIds(
+                        MemberSnapshot.load(em, referenceDate).withMembershipIndex(membershipIndex)));
+
+        var members = new ArrayList<Member>();
+        memberRepository.findAllById(memberIds).forEach(members::add);
+
+        return ResponseEntity.ok().body(members);
+    }
+
+    /**
+     * An endpoint to evaluate multiple conditions at once (e.g. the conditions of all graduations). The snapshot of the
+     * members is loaded only once and equal parts of the conditions are evaluated only once.
+     *
+     * @param conditions a list of conditions (every condition is validated, invalid conditions and too many conditions
+     *                   are rejected with a HTTP BAD REQUEST)
+     * @return a HTTP OK with a list of all matching members for every condition (in the order of the conditions)
+     * @throws ConditionTooExpensiveException thrown, if a condition exceeds the budget
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<List<Member>>> batch(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid @NotNull MainCondition> conditions)
+            throws ConditionTooExpensiveException {
+        for (var condition : conditions) {
+            conditionGuard.check(condition);
+        }
+
+        var snapshot = MemberSnapshot.load(em, LocalDate.now()).withMembershipIndex(membershipIndex);
+        var memberIds = MainCondition.getMemberIds(conditions, snapshot);
+
+        // fetch every matching member only once
+        var uniqueMemberIds = new HashSet<Long>();
+        memberIds.forEach(uniqueMemberIds::addAll);
+
+        var members = new HashMap<Long, Member>();
+        memberRepository.findAllById(uniqueMemberIds).forEach(member -> members.put(member.getId(), member));
+
+        var results = new ArrayList<List<Member>>();
+        for (var ids : memberIds) {
+            var result = new ArrayList<Member>();
+            ids.forEach(id -> result.add(members.get(id)));
+            results.add(result);
+        }
+
+        return ResponseEntity.ok().body(results);
+    }
 
-        return ResponseEntity.ok().body(new ArrayList<>() {{
-            for (var member : res) {
-                add((Member) member);
+    /**
+     * An endpoint to count the members matching the conditions.
+     *
+     * @param condition all conditions
+     * @return a HTTP OK with the number of matching members
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     * @throws ConditionTimeoutException      thrown, if the query has been cancelled by the timeout
+     */
+    @PostMapping("/count")
+    public ResponseEntity<Long> count(@RequestBody @Valid MainCondition condition)
+            throws ConditionTooExpensiveException, ConditionTimeoutException {
+        conditionGuard.check(condition);
+
+        return ResponseEntity.ok(conditionGuard.execute(
+                () -> condition.count(em, DatabaseType.valueOf(databaseType), subqueryMode)));
+    }
+
+    /**
+     * An endpoint to fetch the members matching the conditions page by page. The next page starts after the id of the
+     * last member of the previous page.
+     *
+     * @param condition all conditions
+     * @param after     the unique identifier of the last member of the previous page (empty for the first page)
+     * @param size      the maximum number of members of the page
+     * @return a HTTP OK with a list of the summaries of the matching members ordered by their id
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     * @throws ConditionTimeoutException      thrown, if the query has been cancelled by the timeout
+     */
+    @PostMapping("/page")
+    public ResponseEntity<List<MemberSummaryDTO>> page(
+            @RequestBody @Valid MainCondition condition,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int size)
+            throws ConditionTooExpensiveException, ConditionTimeoutException {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        conditionGuard.check(condition);
+
+        return ResponseEntity.ok(conditionGuard.execute(() -> condition.getMemberSummaries(
+                em, DatabaseType.valueOf(databaseType), subqueryMode, after, size)));
+    }
+
+    /**
+     * An endpoint to stream all members matching the conditions. The members are read with a database cursor and
+     * written to the response one by one, so the server does not hold the whole result in memory.
+     *
+     * @param condition all conditions
+     * @return a HTTP OK with a json array of the summaries of the matching members ordered by their id
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     */
+    @PostMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestBody @Valid MainCondition condition)
+            throws ConditionTooExpensiveException {
+        conditionGuard.check(condition);
+
+        var query = condition.compile(DatabaseType.valueOf(databaseType), subqueryMode).summaries();
+
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+
+                jdbcTemplate.query(connection -> {
+                    var statement = connection.prepareStatement(
+                            query.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    query.bindParameters(statement);
+                    query.applyTimeout(statement);
+                    return statement;
+                }, (RowCallbackHandler) resultSet -> {
+                    try {
+                        generator.writeObject(ConditionQuery.toMemberSummary(resultSet));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                generator.writeEndArray();
+            } catch (QueryTimeoutException e) {
+                // the response has already been started, so the timeout can only be counted
+                conditionGuard.countTimeout();
+                throw e;
             }
-        }});
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
+    }
+
+    /**
+     * An endpoint to show the number of accepted and rejected conditions and the number of query timeouts.
+     *
+     * @return a HTTP OK with the statistics of the condition guard
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<ConditionGuardStatistics> metrics() {
+        return ResponseEntity.ok(conditionGuard.getStatistics());
+    }
+
+    /**
+     * An endpoint to show the statistics of the condition result cache.
+     *
+     * @return a HTTP OK with the number of hits, misses and cached results
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<ConditionCacheStatistics> cache() {
+        return ResponseEntity.ok(ConditionResultCache.getStatistics());
+    }
+
+    /**
+     * An endpoint to filter the members by their disciplines, graduations and seminars. The filters are answered by
+     * combining the bitmaps of the membership index, so no join tables are queried.
+     *
+     * @param disciplines         the members must be members of all these disciplines
+     * @param graduations         the members must have achieved all these graduations
+     * @param excludedGraduations the members must not have achieved any of these graduations
+     * @param seminarType         the members must have visited a seminar of this type (in the seminar year)
+     * @param seminarYear         the year of the seminar (required, if the seminar type is set)
+     * @return a HTTP OK with a list of all matching members (without their events, graduations and seminars)
+     */
+    @GetMapping("/members")
+    public ResponseEntity<List<MemberListDTO>> members(
+            @RequestParam(defaultValue = "") List<Long> disciplines,
+            @RequestParam(defaultValue = "") List<Long> graduations,
+            @RequestParam(defaultValue = "") List<Long> excludedGraduations,
+            @RequestParam(required = false) SeminarType seminarType,
+            @RequestParam(required = false) Integer seminarYear) {
+        if (seminarType != null && seminarYear == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // combine the bitmaps of all filters (null means all members)
+        BitSet result = null;
+        for (var disciplineId : disciplines) {
+            result = intersect(result, membershipIndex.getDisciplineMembers(disciplineId));
+        }
+        for (var graduationId : graduations) {
+            result = intersect(result, membershipIndex.getGraduationMembers(graduationId));
+        }
+        if (seminarType != null) {
+            result = intersect(result, membershipIndex.getSeminarMembers(seminarType, seminarYear));
+        }
+
+        // remove the members with an excluded graduation
+        var excluded = new BitSet();
+        excludedGraduations.forEach(graduationId -> excluded.or(membershipIndex.getGraduationMembers(graduationId)));
+
+        List<Member> members;
+        if (result == null) {
+            members = memberRepository.findAllForList();
+        } else {
+            result.andNot(excluded);
+            members = result.isEmpty()
+                    ? List.of()
+                    : memberRepository.findAllForListByIdIn(
+                    result.stream().mapToObj(Long::valueOf).collect(Collectors.toList()));
+        }
+
+        return ResponseEntity.ok().body(members.stream()
+                .filter(member -> !excluded.get(Math.toIntExact(member.getId())))
+                .map(MemberListDTO::of)
+                .collect(Collectors.toList()));
+    }
+
+    private static BitSet intersect(BitSet result, BitSet members) {
+        if (result == null) {
+            return members;
+        }
+        result.and(members);
+        return result;
     }
 }
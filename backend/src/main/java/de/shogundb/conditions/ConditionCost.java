@@ -0,0 +1,85 @@
+package de.shogundb.conditions;
+
+import de.shogundb.conditions.statements.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An estimation of the cost of a condition tree. The cost depends on the number of nodes of the tree and on the number
+ * of subqueries, which are the expensive part of the query (age and membership conditions are plain comparisons on the
+ * member table).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConditionCost {
+    /**
+     * The cost of a subquery compared to a plain comparison.
+     */
+    public static final int SUBQUERY_WEIGHT = 10;
+
+    /**
+     * The depth of the condition tree (a single condition has a depth of 1).
+     */
+    private int depth;
+
+    /**
+     * The number of all conditions of the tree (including the AND, OR and NOT conditions).
+     */
+    private int branches;
+
+    /**
+     * The number of conditions, which are translated to a subquery.
+     */
+    private int subqueries;
+
+    /**
+     * Estimates the cost of the given condition tree.
+     *
+     * @param condition the condition tree
+     * @return the estimated cost
+     * @throws IllegalArgumentException thrown, if the tree contains a null condition
+     */
+    public static ConditionCost of(Condition condition) {
+        var cost = new ConditionCost();
+        cost.add(condition, 1);
+
+        return cost;
+    }
+
+    /**
+     * Returns the total cost of the condition tree.
+     *
+     * @return the number of branches plus the weighted number of subqueries
+     */
+    public int getCost() {
+        return branches + SUBQUERY_WEIGHT * subqueries;
+    }
+
+    private void add(Condition condition, int level) {
+        if (condition == null) {
+            throw new IllegalArgumentException("The condition tree contains a null condition");
+        }
+        depth = Math.max(depth, level);
+        branches++;
+
+        List<Condition> children = List.of();
+        if (condition instanceof AndCondition) {
+            children = ((AndCondition) condition).getConditions();
+        } else if (condition instanceof OrCondition) {
+            children = ((OrCondition) condition).getConditions();
+        } else if (condition instanceof NotCondition) {
+            children = Collections.singletonList(((NotCondition) condition).getCondition());
+        } else if (!(condition instanceof AgeCondition) && !(condition instanceof MembershipCondition)) {
+            subqueries++;
+        }
+
+        for (var child : children) {
+            add(child, level + 1);
+        }
+    }
+}
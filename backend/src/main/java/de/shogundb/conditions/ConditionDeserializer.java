@@ -1,67 +1,327 @@
 package de.shogundb.conditions;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import de.shogundb.conditions.statements.*;
 import de.shogundb.domain.seminar.SeminarType;
 import org.apache.commons.lang3.EnumUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * A custom deserializer for the condition interface and all classes which implements.
+ * A custom deserializer for the condition interface and all classes which implements. The condition tree is read in
+ * a single pass over the tokens of the parser (nested conditions are read recursively) and every condition is
+ * validated, as soon as all of its fields have been read. Invalid conditions are returned as null, fields with a value
+ * of the wrong kind (e.g. a string or an object instead of a number) are rejected. An encoded condition tree (see
+ * ConditionCodec) is accepted in place of a json object, malformed encoded trees are rejected.
+ * <p>
+ * The depth of the tree is limited while it is read, so a deeply nested payload is rejected before the recursion
+ * overflows the stack. The condition guard limits the depth of accepted conditions further.
  */
 public class ConditionDeserializer extends JsonDeserializer<Condition> {
+    /**
+     * The maximum depth of a condition tree, which is read at all (a single condition has a depth of 1).
+     */
+    public static final int MAX_DEPTH = 64;
+
     @Override
     public Condition deserialize(JsonParser parser, DeserializationContext context)
             throws IOException {
-        var mapper = (ObjectMapper) parser.getCodec();
-        var root = (ObjectNode) mapper.readTree(parser);
-
-        if (root.has("type")) {
-            // Switch the condition type value
-            switch (ConditionType.valueOf(root.get("type").asText())) {
-                case AGE:
-                    if (root.get("minAge").asInt() <= root.get("maxAge").asInt()) {
-                        return mapper.readValue(root.toString(), AgeCondition.class);
-                    }
+        return read(parser, context, 1);
+    }
+
+    /**
+     * Reads a condition and all of its nested conditions.
+     *
+     * @param parser  the parser
+     * @param context the deserialization context
+     * @param depth   the depth of the condition in the tree
+     * @return the condition or null, if the condition is invalid
+     * @throws IOException if the json could not be read or the tree is nested too deeply
+     */
+    private Condition read(JsonParser parser, DeserializationContext context, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw JsonMappingException.from(parser, "The condition is nested deeper than " + MAX_DEPTH + " levels");
+        }
+
+        var token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING && ConditionCodec.isEncoded(parser.getText())) {
+            try {
+                return ConditionCodec.decode(parser.getText());
+            } catch (IllegalArgumentException e) {
+                throw InvalidFormatException.from(parser, e.getMessage(), parser.getText(), Condition.class);
+            }
+        }
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            // skip everything which is not an object
+            parser.skipChildren();
+            return null;
+        }
+
+        String type = null;
+        Integer minAge = null;
+        Integer maxAge = null;
+        Long id = null;
+        Integer period = null;
+        String periodFormat = null;
+        Integer quantity = null;
+        String seminarType = null;
+        Integer rank = null;
+        List<Condition> conditions = null;
+        Condition condition = null;
+
+        // read all fields of the object (the order of the fields is not defined)
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            var name = parser.getCurrentName();
+            var value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (name) {
+                case "type":
+                    type = readString(parser);
+                    break;
+                case "minAge":
+                    minAge = readInt(parser);
+                    break;
+                case "maxAge":
+                    maxAge = readInt(parser);
                     break;
-                case AND:
-                    if (root.get("conditions").size() > 0) {
-                        return mapper.readValue(root.toString(), AndCondition.class);
-                    }
+                case "id":
+                    id = readLong(parser);
                     break;
-                case GRADUATION:
-                    if (root.get("id").asLong() > 0L
-                            && root.get("period").asInt() > 0
-                            && EnumUtils.isValidEnum(PeriodFormat.class, root.get("periodFormat").asText())) {
-                        return mapper.readValue(root.toString(), GraduationCondition.class);
-                    }
+                case "period":
+                    period = readInt(parser);
                     break;
-                case MEMBERSHIP:
-                    if (root.get("period").asInt() > 0
-                            && EnumUtils.isValidEnum(PeriodFormat.class, root.get("periodFormat").asText())) {
-                        return mapper.readValue(root.toString(), MembershipCondition.class);
-                    }
+                case "periodFormat":
+                    periodFormat = readString(parser);
                     break;
-                case OR:
-                    if (root.get("conditions").size() > 0) {
-                        return mapper.readValue(root.toString(), OrCondition.class);
-                    }
+                case "quantity":
+                    quantity = readInt(parser);
                     break;
-                case SEMINAR:
-                    if (root.get("quantity").asInt() > 0
-                            && root.get("period").asInt() > 0
-                            && EnumUtils.isValidEnum(PeriodFormat.class, root.get("periodFormat").asText())
-                            && EnumUtils.isValidEnum(SeminarType.class, root.get("seminarType").asText())) {
-                        return mapper.readValue(root.toString(), SeminarCondition.class);
-                    }
+                case "seminarType":
+                    seminarType = readString(parser);
                     break;
+                case "rank":
+                    rank = readInt(parser);
+                    break;
+                case "conditions":
+                    conditions = readConditions(parser, context, depth + 1);
+                    break;
+                case "condition":
+                    condition = read(parser, context, depth + 1);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (type == null) {
+            return null;
+        }
+        if (!EnumUtils.isValidEnum(ConditionType.class, type)) {
+            throw InvalidFormatException.from(parser, "Unknown condition type", type, ConditionType.class);
+        }
+
+        // Switch the condition type value
+        Condition result = null;
+        switch (ConditionType.valueOf(type)) {
+            case AGE:
+                if (minAge != null && maxAge != null) {
+                    result = new AgeCondition(minAge, maxAge);
+                }
+                break;
+            case AND:
+                if (conditions != null) {
+                    result = new AndCondition(conditions);
+                }
+                break;
+            case GRADUATION:
+                if (id != null && period != null && EnumUtils.isValidEnum(PeriodFormat.class, periodFormat)) {
+                    result = new GraduationCondition(id, period, PeriodFormat.valueOf(periodFormat));
+                }
+                break;
+            case MEMBERSHIP:
+                if (period != null && EnumUtils.isValidEnum(PeriodFormat.class, periodFormat)) {
+                    result = new MembershipCondition(period, PeriodFormat.valueOf(periodFormat));
+                }
+                break;
+            case OR:
+                if (conditions != null) {
+                    result = new OrCondition(conditions);
+                }
+                break;
+            case SEMINAR:
+                if (quantity != null && period != null
+                        && EnumUtils.isValidEnum(PeriodFormat.class, periodFormat)
+                        && EnumUtils.isValidEnum(SeminarType.class, seminarType)) {
+                    result = new SeminarCondition(
+                            quantity,
+                            SeminarType.valueOf(seminarType),
+                            period,
+                            PeriodFormat.valueOf(periodFormat));
+                }
+                break;
+            case DISCIPLINE:
+                result = new DisciplineCondition(id);
+                break;
+            case EVENT:
+                result = new EventCondition(id);
+                break;
+            case CHAMPIONSHIP:
+                if (rank != null) {
+                    result = new ChampionshipCondition(id, rank);
+                }
+                break;
+            case NOT:
+                result = new NotCondition(condition);
+                break;
+        }
+        return result != null && isValid(result) ? result : null;
+    }
+
+    /**
+     * Checks the values of a single condition (the nested conditions must have been checked before). The conditions
+     * decoded by the condition codec are checked the same way.
+     *
+     * @param condition the condition to check
+     * @return true, if the condition is valid
+     */
+    static boolean isValid(Condition condition) {
+        if (condition instanceof AgeCondition) {
+            var age = (AgeCondition) condition;
+            return age.getMinAge() <= age.getMaxAge();
+        }
+        if (condition instanceof AndCondition) {
+            return isValid(((AndCondition) condition).getConditions());
+        }
+        if (condition instanceof GraduationCondition) {
+            var graduation = (GraduationCondition) condition;
+            return isValidId(graduation.getId())
+                    && graduation.getPeriod() > 0
+                    && graduation.getPeriodFormat() != null;
+        }
+        if (condition instanceof MembershipCondition) {
+            var membership = (MembershipCondition) condition;
+            return membership.getPeriod() > 0 && membership.getPeriodFormat() != null;
+        }
+        if (condition instanceof OrCondition) {
+            return isValid(((OrCondition) condition).getConditions());
+        }
+        if (condition instanceof SeminarCondition) {
+            var seminar = (SeminarCondition) condition;
+            return seminar.getQuantity() > 0
+                    && seminar.getSeminarType() != null
+                    && seminar.getPeriod() > 0
+                    && seminar.getPeriodFormat() != null;
+        }
+        if (condition instanceof DisciplineCondition) {
+            return isValidId(((DisciplineCondition) condition).getId());
+        }
+        if (condition instanceof EventCondition) {
+            return isValidId(((EventCondition) condition).getId());
+        }
+        if (condition instanceof ChampionshipCondition) {
+            // without an id, any championship counts
+            var championship = (ChampionshipCondition) condition;
+            return (championship.getId() == null || championship.getId() > 0L) && championship.getRank() > 0;
+        }
+        if (condition instanceof NotCondition) {
+            return ((NotCondition) condition).getCondition() != null;
+        }
+        return false;
+    }
+
+    private static boolean isValid(List<Condition> conditions) {
+        return conditions != null && conditions.size() > 0 && !conditions.contains(null);
+    }
+
+    private static boolean isValidId(Long id) {
+        return id != null && id > 0L;
+    }
+
+    /**
+     * Reads the nested conditions of an AND or OR condition. The parser must point to the start of the array.
+     *
+     * @param parser  the parser
+     * @param context the deserialization context
+     * @param depth   the depth of the nested conditions in the tree
+     * @return a list of all nested conditions or null, if the value is not an array or a nested condition is invalid
+     * @throws IOException if the json could not be read or the tree is nested too deeply
+     */
+    private List<Condition> readConditions(JsonParser parser, DeserializationContext context, int depth)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        var conditions = new ArrayList<Condition>();
+        var valid = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            var condition = read(parser, context, depth);
+
+            // read the remaining conditions anyway, so the parser points to the end of the array
+            if (condition == null) {
+                valid = false;
             }
+            conditions.add(condition);
+        }
+
+        return valid ? conditions : null;
+    }
+
+    /**
+     * Reads a string value. Other values (e.g. numbers, objects or arrays) are rejected, so the parser never skips
+     * over the content of an object or array.
+     *
+     * @param parser the parser pointing to the value
+     * @return the string
+     * @throws IOException if the value is not a string
+     */
+    private static String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw JsonMappingException.from(parser, "The field " + parser.getCurrentName() + " must be a string");
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Reads an integer value. Other values (e.g. strings, decimals, objects or arrays) are rejected instead of being
+     * converted to 0.
+     *
+     * @param parser the parser pointing to the value
+     * @return the integer
+     * @throws IOException if the value is not an integer or out of the range of an int
+     */
+    private static int readInt(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw JsonMappingException.from(parser, "The field " + parser.getCurrentName() + " must be an integer");
+        }
+        return parser.getIntValue();
+    }
+
+    /**
+     * Reads a long value. Other values (e.g. strings, decimals, objects or arrays) are rejected instead of being
+     * converted to 0.
+     *
+     * @param parser the parser pointing to the value
+     * @return the long
+     * @throws IOException if the value is not an integer or out of the range of a long
+     */
+    private static long readLong(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw JsonMappingException.from(parser, "The field " + parser.getCurrentName() + " must be an integer");
         }
-        return null;
+        return parser.getLongValue();
     }
 }
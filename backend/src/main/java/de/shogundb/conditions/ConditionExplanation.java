@@ -0,0 +1,38 @@
+package de.shogundb.conditions;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Diagnostic information about a condition query: the generated sql, the execution plan of the database and a
+ * profile of every node of the (optimized) condition tree.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConditionExplanation {
+    /**
+     * The generated sql statement.
+     */
+    private String sql;
+
+    /**
+     * The values bound to the sql statement.
+     */
+    private List<Object> parameters;
+
+    /**
+     * The execution plan of the database (one entry per row of the EXPLAIN result).
+     */
+    private List<String> plan;
+
+    /**
+     * The profile of the root of the optimized condition tree.
+     */
+    private ConditionProfile profile;
+}
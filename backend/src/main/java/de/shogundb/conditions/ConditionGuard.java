@@ -0,0 +1,94 @@
+package de.shogundb.conditions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Protects the database from expensive conditions. Conditions are rejected, if the estimated cost or the depth of the
+ * condition tree exceeds the budget, accepted conditions get a query timeout. The rejections and timeouts are counted.
+ */
+@Component
+public class ConditionGuard {
+    private static final Logger logger = LoggerFactory.getLogger(ConditionGuard.class);
+
+    private final int maxCost;
+    private final int maxDepth;
+    private final int timeout;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    /**
+     * @param maxCost  the maximum estimated cost of a condition tree (see ConditionCost)
+     * @param maxDepth the maximum depth of a condition tree
+     * @param timeout  the maximum number of seconds a condition query may run (0 means no limit)
+     */
+    @Autowired
+    public ConditionGuard(
+            @Value("${shogundb.conditions.max-cost:1000}") int maxCost,
+            @Value("${shogundb.conditions.max-depth:16}") int maxDepth,
+            @Value("${shogundb.conditions.timeout:10}") int timeout) {
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Checks the estimated cost of the condition and sets the query timeout.
+     *
+     * @param condition the condition to check
+     * @throws ConditionTooExpensiveException thrown, if the condition exceeds the budget
+     */
+    public void check(MainCondition condition) throws ConditionTooExpensiveException {
+        var cost = ConditionCost.of(condition.getCondition());
+
+        if (cost.getDepth() > maxDepth || cost.getCost() > maxCost) {
+            rejected.incrementAndGet();
+            logger.info("Rejected a condition with the depth {} and the cost {}", cost.getDepth(), cost.getCost());
+            throw new ConditionTooExpensiveException("The condition exceeds the budget: " + cost);
+        }
+
+        accepted.incrementAndGet();
+        condition.setTimeout(timeout);
+    }
+
+    /**
+     * Executes the queries of a checked condition and counts the timeouts.
+     *
+     * @param queries a function, which executes the queries
+     * @param <T>     the type of the result
+     * @return the result of the queries
+     * @throws ConditionTimeoutException thrown, if a query has been cancelled by the timeout
+     */
+    public <T> T execute(Supplier<T> queries) throws ConditionTimeoutException {
+        try {
+            return queries.get();
+        } catch (javax.persistence.QueryTimeoutException | org.springframework.dao.QueryTimeoutException e) {
+            timeouts.incrementAndGet();
+            throw new ConditionTimeoutException(e);
+        }
+    }
+
+    /**
+     * Counts a timeout, which could not be reported by execute() (e.g. while streaming the response).
+     */
+    public void countTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of accepted and rejected conditions and the number of timeouts.
+     *
+     * @return the statistics of the guard
+     */
+    public ConditionGuardStatistics getStatistics() {
+        return new ConditionGuardStatistics(accepted.get(), rejected.get(), timeouts.get());
+    }
+}
@@ -0,0 +1,25 @@
+package de.shogundb.conditions;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConditionGuardStatistics {
+    /**
+     * The number of accepted conditions.
+     */
+    private long accepted;
+
+    /**
+     * The number of conditions rejected, because they exceeded the budget.
+     */
+    private long rejected;
+
+    /**
+     * The number of condition queries cancelled by the timeout.
+     */
+    private long timeouts;
+}
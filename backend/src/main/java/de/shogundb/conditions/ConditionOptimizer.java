@@ -0,0 +1,253 @@
+package de.shogundb.conditions;
+
+import de.shogundb.conditions.statements.*;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Normalizes and simplifies a condition tree before it is translated to sql or evaluated. The trees built by the
+ * frontend are machine-generated and often redundant, and every redundant branch results in another subquery.
+ * <p>
+ * An empty AndCondition is always true, an empty OrCondition is always false.
+ */
+public class ConditionOptimizer {
+    private ConditionOptimizer() {
+    }
+
+    /**
+     * Returns an optimized copy of the given condition tree (the given tree is not modified). The optimized tree
+     * matches exactly the same members.
+     * <ul>
+     * <li>nested AND/OR conditions of the same type are flattened</li>
+     * <li>duplicate children are removed</li>
+     * <li>age ranges are intersected (AND) or merged (OR), contradicting ranges make the AND false</li>
+     * <li>membership, graduation and seminar conditions on the same target are merged to the strictest (AND) or
+     * weakest (OR) one</li>
+     * <li>double negations are removed, negated constant conditions are replaced by the opposite constant</li>
+     * <li>the children are ordered, so the cheapest predicates come first</li>
+     * </ul>
+     *
+     * @param condition the condition tree to optimize
+     * @return the optimized condition tree
+     */
+    public static Condition optimize(Condition condition) {
+        if (condition instanceof AndCondition) {
+            return optimizeAnd(((AndCondition) condition).getConditions());
+        }
+        if (condition instanceof OrCondition) {
+            return optimizeOr(((OrCondition) condition).getConditions());
+        }
+        if (condition instanceof NotCondition) {
+            return optimizeNot(((NotCondition) condition).getCondition());
+        }
+        if (condition instanceof AgeCondition && isEmptyRange((AgeCondition) condition)) {
+            return alwaysFalse();
+        }
+        return condition;
+    }
+
+    /**
+     * Checks, if the given condition is always true (an empty AND).
+     *
+     * @param condition the condition to check
+     * @return true, if the condition is always true
+     */
+    public static boolean isAlwaysTrue(Condition condition) {
+        return condition instanceof AndCondition && ((AndCondition) condition).getConditions().isEmpty();
+    }
+
+    /**
+     * Checks, if the given condition is always false (an empty OR).
+     *
+     * @param condition the condition to check
+     * @return true, if the condition is always false
+     */
+    public static boolean isAlwaysFalse(Condition condition) {
+        return condition instanceof OrCondition && ((OrCondition) condition).getConditions().isEmpty();
+    }
+
+    private static Condition optimizeAnd(List<Condition> conditions) {
+        // optimize and flatten the children (a set removes all duplicates)
+        var children = new LinkedHashSet<Condition>();
+        for (var condition : conditions) {
+            var optimized = optimize(condition);
+
+            if (isAlwaysFalse(optimized)) {
+                return alwaysFalse();
+            } else if (optimized instanceof AndCondition) {
+                children.addAll(((AndCondition) optimized).getConditions());
+            } else {
+                children.add(optimized);
+            }
+        }
+
+        // intersect all age ranges
+        var result = merge(children, AgeCondition.class, age -> AgeCondition.class, (age1, age2) -> new AgeCondition(
+                Math.max(age1.getMinAge(), age2.getMinAge()),
+                Math.min(age1.getMaxAge(), age2.getMaxAge())));
+        if (result.stream().anyMatch(condition -> condition instanceof AgeCondition
+                && isEmptyRange((AgeCondition) condition))) {
+            return alwaysFalse();
+        }
+
+        // keep the longest period of the same kind
+        result = merge(result, MembershipCondition.class, MembershipCondition::getPeriodFormat,
+                (membership1, membership2) -> membership1.getPeriod() >= membership2.getPeriod()
+                        ? membership1 : membership2);
+        result = merge(result, GraduationCondition.class,
+                graduation -> List.of(graduation.getId(), graduation.getPeriodFormat()),
+                (graduation1, graduation2) -> graduation1.getPeriod() >= graduation2.getPeriod()
+                        ? graduation1 : graduation2);
+
+        // keep the highest quantity of the same seminars
+        result = merge(result, SeminarCondition.class,
+                seminar -> List.of(seminar.getSeminarType(), seminar.getPeriodFormat(), seminar.getPeriod()),
+                (seminar1, seminar2) -> seminar1.getQuantity() >= seminar2.getQuantity() ? seminar1 : seminar2);
+
+        result.sort(Comparator.comparingInt(ConditionOptimizer::rank));
+
+        return result.size() == 1 ? result.get(0) : new AndCondition(result);
+    }
+
+    private static Condition optimizeOr(List<Condition> conditions) {
+        // optimize and flatten the children (a set removes all duplicates)
+        var children = new LinkedHashSet<Condition>();
+        for (var condition : conditions) {
+            var optimized = optimize(condition);
+
+            if (isAlwaysTrue(optimized)) {
+                return alwaysTrue();
+            } else if (optimized instanceof OrCondition) {
+                children.addAll(((OrCondition) optimized).getConditions());
+            } else {
+                children.add(optimized);
+            }
+        }
+
+        // merge all overlapping age ranges
+        List<Condition> result = new ArrayList<>();
+        var ages = new ArrayList<AgeCondition>();
+        for (var condition : children) {
+            if (condition instanceof AgeCondition) {
+                ages.add((AgeCondition) condition);
+            } else {
+                result.add(condition);
+            }
+        }
+        ages.sort(Comparator.comparingInt(AgeCondition::getMinAge));
+        AgeCondition current = null;
+        for (var age : ages) {
+            if (current != null && age.getMinAge() <= current.getMaxAge() + 1L) {
+                current = new AgeCondition(current.getMinAge(), Math.max(current.getMaxAge(), age.getMaxAge()));
+            } else {
+                if (current != null) {
+                    result.add(current);
+                }
+                current = age;
+            }
+        }
+        if (current != null) {
+            result.add(current);
+        }
+
+        // keep the shortest period of the same kind
+        result = merge(result, MembershipCondition.class, MembershipCondition::getPeriodFormat,
+                (membership1, membership2) -> membership1.getPeriod() <= membership2.getPeriod()
+                        ? membership1 : membership2);
+        result = merge(result, GraduationCondition.class,
+                graduation -> List.of(graduation.getId(), graduation.getPeriodFormat()),
+                (graduation1, graduation2) -> graduation1.getPeriod() <= graduation2.getPeriod()
+                        ? graduation1 : graduation2);
+
+        // keep the lowest quantity of the same seminars
+        result = merge(result, SeminarCondition.class,
+                seminar -> List.of(seminar.getSeminarType(), seminar.getPeriodFormat(), seminar.getPeriod()),
+                (seminar1, seminar2) -> seminar1.getQuantity() <= seminar2.getQuantity() ? seminar1 : seminar2);
+
+        result.sort(Comparator.comparingInt(ConditionOptimizer::rank));
+
+        return result.size() == 1 ? result.get(0) : new OrCondition(result);
+    }
+
+    private static Condition optimizeNot(Condition condition) {
+        var optimized = optimize(condition);
+
+        if (isAlwaysTrue(optimized)) {
+            return alwaysFalse();
+        } else if (isAlwaysFalse(optimized)) {
+            return alwaysTrue();
+        } else if (optimized instanceof NotCondition) {
+            return ((NotCondition) optimized).getCondition();
+        }
+        return new NotCondition(optimized);
+    }
+
+    /**
+     * Merges all conditions of the given type with the same key. All other conditions are kept as they are.
+     *
+     * @param conditions the conditions
+     * @param type       the type of the conditions to merge
+     * @param key        a function which returns the key of a condition (only conditions with the same key are merged)
+     * @param merge      a function which merges two conditions to one
+     * @param <T>        the type of the conditions to merge
+     * @return a new list with the merged conditions
+     */
+    private static <T extends Condition> List<Condition> merge(
+            Collection<Condition> conditions,
+            Class<T> type,
+            Function<T, Object> key,
+            BinaryOperator<T> merge) {
+        var result = new ArrayList<Condition>();
+        var merged = new LinkedHashMap<Object, T>();
+
+        for (var condition : conditions) {
+            if (type.isInstance(condition)) {
+                var typedCondition = type.cast(condition);
+                merged.merge(key.apply(typedCondition), typedCondition, merge);
+            } else {
+                result.add(condition);
+            }
+        }
+        result.addAll(merged.values());
+
+        return result;
+    }
+
+    /**
+     * Returns the evaluation rank of the condition. Simple range predicates on the member table come first, conditions
+     * with subqueries and nested conditions last.
+     *
+     * @param condition the condition
+     * @return the rank (lower is cheaper)
+     */
+    private static int rank(Condition condition) {
+        if (condition instanceof AgeCondition) {
+            return 0;
+        } else if (condition instanceof MembershipCondition) {
+            return 1;
+        } else if (condition instanceof DisciplineCondition) {
+            return 2;
+        } else if (condition instanceof GraduationCondition) {
+            return 3;
+        } else if (condition instanceof EventCondition || condition instanceof ChampionshipCondition) {
+            return 4;
+        } else if (condition instanceof SeminarCondition) {
+            return 5;
+        }
+        return 6;
+    }
+
+    private static boolean isEmptyRange(AgeCondition age) {
+        return age.getMinAge() > age.getMaxAge();
+    }
+
+    private static Condition alwaysTrue() {
+        return AndCondition.builder().build();
+    }
+
+    private static Condition alwaysFalse() {
+        return OrCondition.builder().build();
+    }
+}
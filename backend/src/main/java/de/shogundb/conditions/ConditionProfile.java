@@ -0,0 +1,45 @@
+package de.shogundb.conditions;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The profile of a single node of a condition tree: the number of matching members and the time the database needed
+ * to count them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ConditionProfile {
+    /**
+     * The type of the condition (e.g. SeminarCondition).
+     */
+    private String type;
+
+    /**
+     * The values bound to the sql statement of the condition.
+     */
+    private List<Object> parameters;
+
+    /**
+     * The number of members matching the condition.
+     */
+    private long rows;
+
+    /**
+     * The time the database needed to count the matching members (in milliseconds).
+     */
+    private double durationMillis;
+
+    /**
+     * The profiles of the nested conditions (only AND, OR and NOT conditions have children, a NOT condition has one).
+     */
+    @Builder.Default
+    private List<ConditionProfile> children = new ArrayList<>();
+}
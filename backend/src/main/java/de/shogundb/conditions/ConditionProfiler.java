@@ -0,0 +1,163 @@
+package de.shogundb.conditions;
+
+import de.shogundb.conditions.statements.AndCondition;
+import de.shogundb.conditions.statements.Condition;
+import de.shogundb.conditions.statements.NotCondition;
+import de.shogundb.conditions.statements.OrCondition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.QueryTimeoutException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Explains and profiles condition queries. Every node of the condition tree is counted by a separate query, so a slow
+ * branch (e.g. a seminar condition) can be found in the result. The timeout of the condition applies to all queries
+ * of an explanation together, so every query gets the time left until the deadline.
+ */
+public class ConditionProfiler {
+    private final EntityManager entityManager;
+    private final DatabaseType databaseType;
+    private final SubqueryMode subqueryMode;
+    private final LocalDate referenceDate;
+
+    /**
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native queries
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @param referenceDate the date all relative periods are calculated from
+     */
+    public ConditionProfiler(
+            EntityManager entityManager,
+            DatabaseType databaseType,
+            SubqueryMode subqueryMode,
+            LocalDate referenceDate) {
+        this.entityManager = entityManager;
+        this.databaseType = databaseType;
+        this.subqueryMode = subqueryMode;
+        this.referenceDate = referenceDate;
+    }
+
+    /**
+     * Compiles the condition, fetches the execution plan of the query and profiles every node of the optimized
+     * condition tree.
+     *
+     * @param mainCondition the condition to explain
+     * @return the generated sql, the execution plan and the profile of the condition tree
+     * @throws QueryTimeoutException thrown, if the queries exceed the timeout of the condition
+     */
+    public ConditionExplanation explain(MainCondition mainCondition) {
+        var timeout = mainCondition.getTimeout();
+        return explain(mainCondition, timeout > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout) : 0);
+    }
+
+    /**
+     * Explains the condition (see explain(MainCondition)) until the given deadline.
+     *
+     * @param mainCondition the condition to explain
+     * @param deadline      the value of System.nanoTime() all queries must be finished by (0 means no limit)
+     * @return the generated sql, the execution plan and the profile of the condition tree
+     * @throws QueryTimeoutException thrown, if the queries exceed the deadline
+     */
+    public ConditionExplanation explain(MainCondition mainCondition, long deadline) {
+        var query = mainCondition.compile(databaseType, subqueryMode, referenceDate);
+
+        return ConditionExplanation.builder()
+                .sql(query.getSql())
+                .parameters(query.getParameters())
+                .plan(getPlan(query, deadline))
+                .profile(profile(ConditionOptimizer.optimize(mainCondition.getCondition()), deadline))
+                .build();
+    }
+
+    /**
+     * Fetches the execution plan of the given query from the database.
+     *
+     * @param query    the compiled condition query
+     * @param deadline the deadline of the explanation
+     * @return every row of the EXPLAIN result as a string (the columns are separated by a '|')
+     */
+    private List<String> getPlan(ConditionQuery query, long deadline) {
+        var timeout = getRemainingTimeout(deadline);
+
+        List<?> rows;
+        try {
+            rows = new ConditionQuery("EXPLAIN " + query.getSql(), query.getParameters(), timeout)
+                    .createNativeQuery(entityManager)
+                    .getResultList();
+        } catch (PersistenceException e) {
+            return List.of("The execution plan is not available: " + e.getMessage());
+        }
+
+        return rows.stream()
+                .map(row -> row instanceof Object[]
+                        ? Arrays.stream((Object[]) row).map(String::valueOf).collect(Collectors.joining(" | "))
+                        : String.valueOf(row))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the members matching the given condition and all of its nested conditions.
+     *
+     * @param condition the (optimized) condition
+     * @param deadline  the deadline of the explanation
+     * @return the profile of the condition
+     */
+    private ConditionProfile profile(Condition condition, long deadline) {
+        var parameters = new ArrayList<>();
+        condition.addParameters(parameters, referenceDate);
+
+        var query = new ConditionQuery(
+                "SELECT COUNT(*) FROM member WHERE (" + condition.getSQLStatement(databaseType, subqueryMode) + ")",
+                parameters,
+                getRemainingTimeout(deadline));
+
+        var start = System.nanoTime();
+        var rows = ((Number) query.createNativeQuery(entityManager).getSingleResult()).longValue();
+        var duration = System.nanoTime() - start;
+
+        var profile = ConditionProfile.builder()
+                .type(condition.getClass().getSimpleName())
+                .parameters(parameters)
+                .rows(rows)
+                .durationMillis(duration / 1_000_000.0)
+                .build();
+
+        // profile the nested conditions
+        List<Condition> children = List.of();
+        if (condition instanceof AndCondition) {
+            children = ((AndCondition) condition).getConditions();
+        } else if (condition instanceof OrCondition) {
+            children = ((OrCondition) condition).getConditions();
+        } else if (condition instanceof NotCondition) {
+            children = List.of(((NotCondition) condition).getCondition());
+        }
+        children.forEach(child -> profile.getChildren().add(profile(child, deadline)));
+
+        return profile;
+    }
+
+    /**
+     * Returns the query timeout for the time left until the deadline.
+     *
+     * @param deadline the deadline of the explanation (0 means no limit)
+     * @return the number of seconds left (rounded up) or 0, if there is no limit
+     * @throws QueryTimeoutException thrown, if the deadline has passed
+     */
+    private static int getRemainingTimeout(long deadline) {
+        if (deadline == 0) {
+            return 0;
+        }
+
+        var remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException("The explanation exceeds the timeout");
+        }
+        return (int) TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1);
+    }
+}
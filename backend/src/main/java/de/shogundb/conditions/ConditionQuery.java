@@ -0,0 +1,214 @@
+package de.shogundb.conditions;
+
+import de.shogundb.domain.member.MemberSummaryDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled condition query: a parameterized sql statement and the values to bind to its placeholders.
+ */
+@Data
+@AllArgsConstructor
+public class ConditionQuery {
+    /**
+     * The columns of a member summary (in the order of the MemberSummaryDTO).
+     */
+    private static final String MEMBER_SUMMARY_COLUMNS = "matching_member.id, matching_member.forename, "
+            + "matching_member.surname, matching_member.date_of_birth, matching_member.entered_date";
+
+    /**
+     * The sql statement with a '?' placeholder for every value.
+     */
+    private String sql;
+
+    /**
+     * The values to bind to the placeholders (in order of appearance).
+     */
+    private List<Object> parameters;
+
+    /**
+     * The maximum number of seconds the query may run (0 means no limit).
+     */
+    private int timeout;
+
+    public ConditionQuery(String sql, List<Object> parameters) {
+        this(sql, parameters, 0);
+    }
+
+    /**
+     * Returns a query, which counts the matching members instead of selecting them.
+     *
+     * @return a query with a single scalar result
+     */
+    public ConditionQuery count() {
+        return new ConditionQuery("SELECT COUNT(*) FROM (" + sql + ") matching_member", parameters, timeout);
+    }
+
+    /**
+     * Returns a query, which selects only the unique identifiers of the matching members ordered by their id.
+     *
+     * @return a query with the id column
+     */
+    public ConditionQuery ids() {
+        return new ConditionQuery(
+                "SELECT matching_member.id FROM (" + sql + ") matching_member ORDER BY matching_member.id",
+                parameters,
+                timeout);
+    }
+
+    /**
+     * Returns a query, which selects the summaries of all matching members ordered by their id.
+     *
+     * @return a query with the columns of a member summary
+     */
+    public ConditionQuery summaries() {
+        return new ConditionQuery(
+                "SELECT " + MEMBER_SUMMARY_COLUMNS + " FROM (" + sql + ") matching_member ORDER BY matching_member.id",
+                parameters,
+                timeout);
+    }
+
+    /**
+     * Returns a query, which selects the summaries of the next matching members after the given member id (keyset
+     * pagination, so the database does not need to skip all members of the previous pages).
+     *
+     * @param afterId the unique identifier of the last member of the previous page or null for the first page
+     * @param size    the maximum number of members of the page
+     * @return a query with the columns of a member summary
+     */
+    public ConditionQuery page(Long afterId, int size) {
+        var pageParameters = new ArrayList<>(parameters);
+        pageParameters.add(afterId == null ? Long.MIN_VALUE : afterId);
+        pageParameters.add(size);
+
+        return new ConditionQuery(
+                "SELECT " + MEMBER_SUMMARY_COLUMNS + " FROM (" + sql + ") matching_member "
+                        + "WHERE matching_member.id > ? ORDER BY matching_member.id LIMIT ?",
+                pageParameters,
+                timeout);
+    }
+
+    /**
+     * Creates a native query and binds all parameters.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to create the native query
+     * @param resultClass   the class of the result entities
+     * @return a native query ready to be executed
+     */
+    public Query createNativeQuery(EntityManager entityManager, Class<?> resultClass) {
+        return bindParameters(entityManager.createNativeQuery(sql, resultClass));
+    }
+
+    /**
+     * Creates a native query (with a scalar result) and binds all parameters.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to create the native query
+     * @return a native query ready to be executed
+     */
+    public Query createNativeQuery(EntityManager entityManager) {
+        return bindParameters(entityManager.createNativeQuery(sql));
+    }
+
+    /**
+     * Binds all parameters to the given query and sets the timeout hint.
+     *
+     * @param query the query
+     * @return the query with all parameters bound
+     */
+    private Query bindParameters(Query query) {
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, toSqlValue(parameters.get(i)));
+        }
+        if (timeout > 0) {
+            query.setHint("javax.persistence.query.timeout", timeout * 1000);
+        }
+        return query;
+    }
+
+    /**
+     * Binds all parameters to the given jdbc statement.
+     *
+     * @param statement the prepared statement of the sql query
+     * @throws SQLException thrown, if a parameter could not be bound
+     */
+    public void bindParameters(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, toSqlValue(parameters.get(i)));
+        }
+    }
+
+    /**
+     * Applies the timeout of the query to the given jdbc statement.
+     *
+     * @param statement the statement of the sql query
+     * @throws SQLException thrown, if the timeout could not be set
+     */
+    public void applyTimeout(Statement statement) throws SQLException {
+        if (timeout > 0) {
+            statement.setQueryTimeout(timeout);
+        }
+    }
+
+    /**
+     * Converts a row of a member summary query (see summaries() and page()) to a member summary.
+     *
+     * @param columns the columns of the row
+     * @return the member summary
+     */
+    public static MemberSummaryDTO toMemberSummary(Object[] columns) {
+        return MemberSummaryDTO.builder()
+                .id(((Number) columns[0]).longValue())
+                .forename((String) columns[1])
+                .surname((String) columns[2])
+                .dateOfBirth(toLocalDate(columns[3]))
+                .enteredDate(toLocalDate(columns[4]))
+                .build();
+    }
+
+    /**
+     * Converts the current row of a member summary query (see summaries() and page()) to a member summary.
+     *
+     * @param resultSet the result set positioned at the row
+     * @return the member summary
+     * @throws SQLException thrown, if a column could not be read
+     */
+    public static MemberSummaryDTO toMemberSummary(ResultSet resultSet) throws SQLException {
+        return toMemberSummary(new Object[]{
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getDate(4),
+                resultSet.getDate(5)});
+    }
+
+    private static Object toSqlValue(Object parameter) {
+        // bind dates as plain sql dates
+        return parameter instanceof LocalDate ? java.sql.Date.valueOf((LocalDate) parameter) : parameter;
+    }
+
+    /**
+     * Converts a date column of a native query result to a local date.
+     *
+     * @param value the value of the column
+     * @return the date or null, if the value is null
+     */
+    static LocalDate toLocalDate(Object value) {
+        if (value == null || value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return new java.sql.Date(((java.util.Date) value).getTime()).toLocalDate();
+    }
+}
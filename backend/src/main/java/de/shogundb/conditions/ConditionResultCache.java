@@ -0,0 +1,95 @@
+package de.shogundb.conditions;
+
+import de.shogundb.conditions.statements.Condition;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the unique identifiers of the members matching a condition. The results are cached by the optimized condition
+ * tree and the reference date (age and period conditions depend on the current date). All results are removed, when
+ * a member, an exam, a graduation member or a seminar is changed (see ConditionCacheInvalidator).
+ */
+public class ConditionResultCache {
+    /**
+     * The maximum number of cached results.
+     */
+    private static final int MAX_CACHED_RESULTS = 256;
+
+    /**
+     * The cached results by condition and reference date (least recently used are removed first).
+     */
+    private static final Map<List<Object>, List<Long>> RESULTS = Collections.synchronizedMap(
+            new LinkedHashMap<List<Object>, List<Long>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, List<Long>> eldest) {
+                    return size() > MAX_CACHED_RESULTS;
+                }
+            });
+
+    /**
+     * Incremented on every invalidation, so results loaded before an invalidation are not cached afterwards.
+     */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private static final AtomicLong HITS = new AtomicLong();
+
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private ConditionResultCache() {
+    }
+
+    /**
+     * Returns the cached result of the condition or loads and caches it.
+     *
+     * @param condition     the optimized condition
+     * @param referenceDate the date the condition is evaluated against
+     * @param loader        a function which loads the unique identifiers of all matching members
+     * @return the unique identifiers of all matching members (the list must not be modified)
+     */
+    public static List<Long> getMemberIds(Condition condition, LocalDate referenceDate, Supplier<List<Long>> loader) {
+        var key = List.of(condition, referenceDate);
+
+        var result = RESULTS.get(key);
+        if (result != null) {
+            HITS.incrementAndGet();
+            return result;
+        }
+        MISSES.incrementAndGet();
+
+        var generation = GENERATION.get();
+        result = List.copyOf(loader.get());
+
+        // do not cache the result, if the data has changed while loading
+        synchronized (RESULTS) {
+            if (generation == GENERATION.get()) {
+                RESULTS.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public static void invalidate() {
+        synchronized (RESULTS) {
+            GENERATION.incrementAndGet();
+            RESULTS.clear();
+        }
+    }
+
+    /**
+     * Returns the number of hits and misses since the start of the application and the number of cached results.
+     *
+     * @return the statistics of the cache
+     */
+    public static ConditionCacheStatistics getStatistics() {
+        return new ConditionCacheStatistics(HITS.get(), MISSES.get(), RESULTS.size());
+    }
+}
@@ -0,0 +1,19 @@
+package de.shogundb.conditions;
+
+public class ConditionTimeoutException extends Exception {
+    public ConditionTimeoutException() {
+        super();
+    }
+
+    public ConditionTimeoutException(String message) {
+        super(message);
+    }
+
+    public ConditionTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ConditionTimeoutException(Throwable cause) {
+        super(cause);
+    }
+}
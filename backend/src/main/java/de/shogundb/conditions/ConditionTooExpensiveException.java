@@ -0,0 +1,19 @@
+package de.shogundb.conditions;
+
+public class ConditionTooExpensiveException extends Exception {
+    public ConditionTooExpensiveException() {
+        super();
+    }
+
+    public ConditionTooExpensiveException(String message) {
+        super(message);
+    }
+
+    public ConditionTooExpensiveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ConditionTooExpensiveException(Throwable cause) {
+        super(cause);
+    }
+}
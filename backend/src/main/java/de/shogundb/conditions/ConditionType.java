@@ -6,5 +6,9 @@ public enum ConditionType {
     GRADUATION,
     MEMBERSHIP,
     OR,
-    SEMINAR
+    SEMINAR,
+    DISCIPLINE,
+    EVENT,
+    CHAMPIONSHIP,
+    NOT
 }
@@ -0,0 +1,187 @@
+package de.shogundb.conditions;
+
+import java.util.Arrays;
+
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+
+/**
+ * An immutable set of dates, stored as sorted, disjoint and half-open ranges [start, end) of epoch days. It describes
+ * on which reference dates a condition is fulfilled by a member, if the data of the member does not change.
+ */
+public class DateRanges {
+    /**
+     * The exclusive end of a range without an end.
+     */
+    public static final long INFINITY = Long.MAX_VALUE;
+
+    private static final DateRanges NONE = new DateRanges(new long[0]);
+
+    private static final DateRanges ALL = new DateRanges(new long[]{Long.MIN_VALUE, INFINITY});
+
+    /**
+     * The start (inclusive) and end (exclusive) of all ranges in alternating order.
+     */
+    private final long[] bounds;
+
+    private DateRanges(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns an empty set of dates.
+     *
+     * @return a set without any date
+     */
+    public static DateRanges none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the set of all dates.
+     *
+     * @return a set with all dates
+     */
+    public static DateRanges all() {
+        return ALL;
+    }
+
+    /**
+     * Returns all dates from the given date on.
+     *
+     * @param start the first date (epoch days)
+     * @return a set with all dates from the start date on
+     */
+    public static DateRanges from(long start) {
+        return between(start, INFINITY);
+    }
+
+    /**
+     * Returns all dates between the given dates.
+     *
+     * @param start the first date (epoch days, inclusive)
+     * @param end   the date after the last date (epoch days, exclusive)
+     * @return a set with all dates between the start and the end date
+     */
+    public static DateRanges between(long start, long end) {
+        return start < end ? new DateRanges(new long[]{start, end}) : NONE;
+    }
+
+    /**
+     * Returns all dates, which are contained in this and the other set.
+     *
+     * @param other the other set of dates
+     * @return the intersection of both sets
+     */
+    public DateRanges intersect(DateRanges other) {
+        var result = new long[bounds.length + other.bounds.length];
+        int count = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length && j < other.bounds.length) {
+            var start = Math.max(bounds[i], other.bounds[j]);
+            var end = Math.min(bounds[i + 1], other.bounds[j + 1]);
+            if (start < end) {
+                result[count++] = start;
+                result[count++] = end;
+            }
+
+            // continue with the range, which ends first
+            if (bounds[i + 1] < other.bounds[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+
+        return new DateRanges(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns all dates, which are contained in this or the other set.
+     *
+     * @param other the other set of dates
+     * @return the union of both sets
+     */
+    public DateRanges union(DateRanges other) {
+        var result = new long[bounds.length + other.bounds.length];
+        int count = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length || j < other.bounds.length) {
+            // take the range, which starts first
+            long start;
+            long end;
+            if (j == other.bounds.length || (i < bounds.length && bounds[i] <= other.bounds[j])) {
+                start = bounds[i];
+                end = bounds[i + 1];
+                i += 2;
+            } else {
+                start = other.bounds[j];
+                end = other.bounds[j + 1];
+                j += 2;
+            }
+
+            // extend the last range, if both overlap or touch each other
+            if (count > 0 && start <= result[count - 1]) {
+                result[count - 1] = Math.max(result[count - 1], end);
+            } else {
+                result[count++] = start;
+                result[count++] = end;
+            }
+        }
+
+        return new DateRanges(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns all dates, which are not contained in this set.
+     *
+     * @return the complement of this set
+     */
+    public DateRanges complement() {
+        var result = new long[bounds.length + 2];
+        int count = 0;
+
+        // the gaps between the ranges (before the first and after the last one)
+        var start = Long.MIN_VALUE;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (start < bounds[i]) {
+                result[count++] = start;
+                result[count++] = bounds[i];
+            }
+            start = bounds[i + 1];
+        }
+        if (start < INFINITY) {
+            result[count++] = start;
+            result[count++] = INFINITY;
+        }
+
+        return new DateRanges(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns the first date of this set, which is not before the given date.
+     *
+     * @param date the earliest date (epoch days)
+     * @return the first date (epoch days) or NO_DATE, if the set has no date on or after the given date
+     */
+    public long first(long date) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i + 1] > date) {
+                return Math.max(bounds[i], date);
+            }
+        }
+        return NO_DATE;
+    }
+
+    /**
+     * Checks, if this set contains no date at all.
+     *
+     * @return true, if the set is empty
+     */
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+}
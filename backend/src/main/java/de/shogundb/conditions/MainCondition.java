@@ -1,22 +1,54 @@
 package de.shogundb.conditions;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.statements.AndCondition;
 import de.shogundb.conditions.statements.Condition;
+import de.shogundb.conditions.statements.OrCondition;
 import de.shogundb.domain.member.Member;
+import de.shogundb.domain.member.MemberSummaryDTO;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.persistence.EntityManager;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class MainCondition {
+    /**
+     * The maximum number of compiled sql statements to keep in the cache.
+     */
+    private static final int MAX_CACHED_STATEMENTS = 512;
+
+    /**
+     * Caches the compiled sql statements by the shape of the condition tree (least recently used are removed first).
+     */
+    private static final Map<String, String> STATEMENT_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_STATEMENTS;
+                }
+            });
+
     /**
      * A condition object (it is possible to chain multiple condition objects together using the AndCondition or
      * OrCondition.
@@ -25,17 +57,94 @@ public class MainCondition {
     Condition condition;
 
     /**
-     * Builds the query by executing all `getSQLStatement()` methods from the conditions recursively.
+     * The maximum number of seconds the queries of the condition may run (0 means no limit). It is set by the
+     * ConditionGuard and can not be set by the client.
+     */
+    @JsonIgnore
+    int timeout;
+
+    public MainCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * Builds the query by executing all `getSQLStatement()` methods from the conditions recursively. The query is
+     * cached by the shape of the condition tree, so conditions which only differ in their values share one statement.
      *
      * @param databaseType the type of the database (H2 or MYSQL)
-     * @return a complete sql query with all conditions in the where clause
+     * @return a complete sql query with all conditions in the where clause (all values are '?' placeholders)
      */
     public String getSQLQuery(DatabaseType databaseType) {
-        return new StringBuilder()
+        return getSQLQuery(databaseType, SubqueryMode.CORRELATED);
+    }
+
+    /**
+     * Builds the query by executing all `getSQLStatement()` methods from the conditions recursively.
+     *
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @param subqueryMode the way conditions on related tables are translated
+     * @return a complete sql query with all conditions in the where clause (all values are '?' placeholders)
+     */
+    public String getSQLQuery(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        return getSQLQuery(ConditionOptimizer.optimize(condition), databaseType, subqueryMode);
+    }
+
+    /**
+     * Builds the query of the given (already optimized) condition tree or returns it from the cache.
+     *
+     * @param condition    the optimized condition tree
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @param subqueryMode the way conditions on related tables are translated
+     * @return a complete sql query with all conditions in the where clause (all values are '?' placeholders)
+     */
+    private static String getSQLQuery(Condition condition, DatabaseType databaseType, SubqueryMode subqueryMode) {
+        var shape = new StringBuilder().append(databaseType).append(":").append(subqueryMode).append(":");
+        condition.appendShape(shape);
+
+        return STATEMENT_CACHE.computeIfAbsent(shape.toString(), key -> new StringBuilder()
                 .append("SELECT * FROM member WHERE (")
-                .append(condition.getSQLStatement(databaseType))
+                .append(condition.getSQLStatement(databaseType, subqueryMode))
                 .append(")")
-                .toString();
+                .toString());
+    }
+
+    /**
+     * Compiles the condition to a parameterized query.
+     *
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @return the sql query and the values to bind to it
+     */
+    public ConditionQuery compile(DatabaseType databaseType) {
+        return compile(databaseType, SubqueryMode.CORRELATED);
+    }
+
+    /**
+     * Compiles the condition to a parameterized query.
+     *
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @param subqueryMode the way conditions on related tables are translated
+     * @return the sql query and the values to bind to it
+     */
+    public ConditionQuery compile(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        return compile(databaseType, subqueryMode, LocalDate.now());
+    }
+
+    /**
+     * Compiles the condition to a parameterized query.
+     *
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @param referenceDate the date all relative periods are calculated from
+     * @return the sql query and the values to bind to it
+     */
+    public ConditionQuery compile(DatabaseType databaseType, SubqueryMode subqueryMode, LocalDate referenceDate) {
+        // remove all redundant branches first
+        var optimized = ConditionOptimizer.optimize(condition);
+
+        var parameters = new ArrayList<>();
+        optimized.addParameters(parameters, referenceDate);
+
+        return new ConditionQuery(getSQLQuery(optimized, databaseType, subqueryMode), parameters, timeout);
     }
 
     /**
@@ -46,8 +155,20 @@ public class MainCondition {
      * @return a list of all members matching the condition
      */
     public List<Member> getMembers(EntityManager entityManager, DatabaseType databaseType) {
+        return getMembers(entityManager, databaseType, SubqueryMode.CORRELATED);
+    }
+
+    /**
+     * Returns a list of all members matching the condition.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute a native query against the database
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @return a list of all members matching the condition
+     */
+    public List<Member> getMembers(EntityManager entityManager, DatabaseType databaseType, SubqueryMode subqueryMode) {
         // create the query (with all conditions recursively)
-        var query = entityManager.createNativeQuery(getSQLQuery(databaseType), Member.class);
+        var query = compile(databaseType, subqueryMode).createNativeQuery(entityManager, Member.class);
 
         // fetch and return the results
         return new ArrayList<>() {{
@@ -56,4 +177,223 @@ public class MainCondition {
             }
         }};
     }
+
+    /**
+     * Returns the unique identifiers of all members matching the condition. The result is cached until a member, an
+     * exam, a graduation member or a seminar changes (or the date changes).
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native query
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @return a list of the unique identifiers of all matching members (ordered by the id)
+     */
+    public List<Long> getMemberIds(EntityManager entityManager, DatabaseType databaseType, SubqueryMode subqueryMode) {
+        var referenceDate = LocalDate.now();
+
+        return ConditionResultCache.getMemberIds(ConditionOptimizer.optimize(condition), referenceDate, () -> {
+            List<?> ids = compile(databaseType, subqueryMode, referenceDate).ids()
+                    .createNativeQuery(entityManager)
+                    .getResultList();
+
+            return ids.stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Returns the unique identifiers of all members matching the condition. Every branch of a top level AND or OR
+     * condition is executed as its own query in parallel (on its own pooled connection), the results are intersected
+     * or united afterwards. This keeps multiple cores of the database busy, which executes a single query serially.
+     * The result is cached like the result of the single query.
+     *
+     * @param jdbcTemplate a jdbc template to execute the queries (every thread borrows its own connection)
+     * @param executor     the executor to run the queries on
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @param subqueryMode the way conditions on related tables are translated
+     * @return a list of the unique identifiers of all matching members (ordered by the id)
+     */
+    public List<Long> getMemberIds(
+            JdbcTemplate jdbcTemplate,
+            Executor executor,
+            DatabaseType databaseType,
+            SubqueryMode subqueryMode) {
+        var referenceDate = LocalDate.now();
+        var optimized = ConditionOptimizer.optimize(condition);
+
+        return ConditionResultCache.getMemberIds(optimized, referenceDate, () -> {
+            List<Condition> branches = optimized instanceof AndCondition
+                    ? ((AndCondition) optimized).getConditions()
+                    : optimized instanceof OrCondition ? ((OrCondition) optimized).getConditions() : List.of();
+
+            // nothing to split
+            if (branches.size() < 2) {
+                return getMemberIds(jdbcTemplate, compile(databaseType, subqueryMode, referenceDate));
+            }
+
+            var results = new ArrayList<CompletableFuture<List<Long>>>();
+            for (var branch : branches) {
+                var query = new MainCondition(branch, timeout).compile(databaseType, subqueryMode, referenceDate);
+                results.add(CompletableFuture.supplyAsync(() -> getMemberIds(jdbcTemplate, query), executor));
+            }
+
+            // intersect (AND) or unite (OR) the results of all branches
+            try {
+                var memberIds = new TreeSet<>(results.get(0).join());
+                for (var result : results.subList(1, results.size())) {
+                    if (optimized instanceof AndCondition) {
+                        memberIds.retainAll(result.join());
+                    } else {
+                        memberIds.addAll(result.join());
+                    }
+                }
+                return new ArrayList<>(memberIds);
+            } catch (CompletionException e) {
+                results.forEach(result -> result.cancel(true));
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Executes the id query of the given compiled condition with a jdbc template.
+     *
+     * @param jdbcTemplate a jdbc template to execute the query
+     * @param query        the compiled condition
+     * @return a list of the unique identifiers of all matching members (ordered by the id)
+     */
+    private static List<Long> getMemberIds(JdbcTemplate jdbcTemplate, ConditionQuery query) {
+        var ids = query.ids();
+
+        return jdbcTemplate.query(ids.getSql(), statement -> {
+            ids.bindParameters(statement);
+            ids.applyTimeout(statement);
+        }, (resultSet, row) -> resultSet.getLong(1));
+    }
+
+    /**
+     * Counts all members matching the condition without fetching them.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native query
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @return the number of matching members
+     */
+    public long count(EntityManager entityManager, DatabaseType databaseType, SubqueryMode subqueryMode) {
+        var query = compile(databaseType, subqueryMode).count().createNativeQuery(entityManager);
+
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * Returns a page of the summaries of all members matching the condition ordered by their id.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native query
+     * @param databaseType  the type of the database (H2 or MYSQL)
+     * @param subqueryMode  the way conditions on related tables are translated
+     * @param afterId       the unique identifier of the last member of the previous page or null for the first page
+     * @param size          the maximum number of members of the page
+     * @return a list of member summaries
+     */
+    public List<MemberSummaryDTO> getMemberSummaries(
+            EntityManager entityManager,
+            DatabaseType databaseType,
+            SubqueryMode subqueryMode,
+            Long afterId,
+            int size) {
+        List<?> rows = compile(databaseType, subqueryMode).page(afterId, size)
+                .createNativeQuery(entityManager)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> ConditionQuery.toMemberSummary((Object[]) row))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the unique identifiers of all members matching the condition by evaluating the condition against an
+     * in-memory snapshot instead of the database.
+     *
+     * @param snapshot a snapshot of all members
+     * @return a list of the unique identifiers of all members matching the condition
+     */
+    public List<Long> getMemberIds(MemberSnapshot snapshot) {
+        return ConditionOptimizer.optimize(condition).evaluate(snapshot).stream()
+                .mapToObj(snapshot::getMemberId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Evaluates multiple conditions against the same snapshot. Equal (sub-)conditions of different trees are evaluated
+     * only once, e.g. a seminar condition used in the conditions of many graduations.
+     *
+     * @param conditions the conditions to evaluate
+     * @param snapshot   a snapshot of all members
+     * @return the unique identifiers of all matching members for every condition (in the order of the conditions)
+     */
+    public static List<List<Long>> getMemberIds(List<MainCondition> conditions, MemberSnapshot snapshot) {
+        var results = new HashMap<Condition, BitSet>();
+
+        var memberIds = new ArrayList<List<Long>>();
+        for (var mainCondition : conditions) {
+            var optimized = ConditionOptimizer.optimize(mainCondition.getCondition());
+            memberIds.add(evaluate(optimized, snapshot, results).stream()
+                    .mapToObj(snapshot::getMemberId)
+                    .collect(Collectors.toList()));
+        }
+        return memberIds;
+    }
+
+    /**
+     * Evaluates the condition against the snapshot or returns the result of an equal condition evaluated before.
+     *
+     * @param condition the condition to evaluate
+     * @param snapshot  a snapshot of all members
+     * @param results   the results of all conditions evaluated before (the results must not be modified)
+     * @return a bit set with the row indices of all members matching the condition
+     */
+    private static BitSet evaluate(Condition condition, MemberSnapshot snapshot, Map<Condition, BitSet> results) {
+        var result = results.get(condition);
+        if (result != null) {
+            return result;
+        }
+
+        if (condition instanceof AndCondition) {
+            result = new BitSet(snapshot.size());
+            result.set(0, snapshot.size());
+            for (var child : ((AndCondition) condition).getConditions()) {
+                result.and(evaluate(child, snapshot, results));
+            }
+        } else if (condition instanceof OrCondition) {
+            result = new BitSet(snapshot.size());
+            for (var child : ((OrCondition) condition).getConditions()) {
+                result.or(evaluate(child, snapshot, results));
+            }
+        } else {
+            result = condition.evaluate(snapshot);
+        }
+
+        results.put(condition, result);
+        return result;
+    }
+
+    /**
+     * Calculates for every member of the snapshot the first date (not before the reference date of the snapshot), on
+     * which the member fulfills the condition. The dates are calculated analytically from the date thresholds of the
+     * conditions, so the condition is only evaluated once per member instead of once per day.
+     *
+     * @param snapshot a snapshot of the members
+     * @return the first date (epoch days) or NO_DATE for every row of the snapshot
+     */
+    public long[] forecast(MemberSnapshot snapshot) {
+        var optimizedCondition = ConditionOptimizer.optimize(condition);
+        var referenceDate = snapshot.getReferenceDate().toEpochDay();
+
+        var result = new long[snapshot.size()];
+        for (int row = 0; row < snapshot.size(); row++) {
+            result[row] = optimizedCondition.getFulfilledDates(snapshot, row).first(referenceDate);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,490 @@
+package de.shogundb.conditions;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A read-only, column oriented snapshot of all member data the conditions depend on. Every member is represented by a
+ * row index, all dates are stored as epoch days in primitive arrays, so a condition tree can be evaluated against all
+ * members without a database round trip per condition.
+ */
+public class MemberSnapshot {
+    /**
+     * The value of a date column, if the date is not set.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * The date the relative conditions (age, membership, periods) are evaluated against.
+     */
+    private final LocalDate referenceDate;
+
+    /**
+     * The unique identifiers of all members (in ascending order).
+     */
+    private final long[] memberIds;
+
+    /**
+     * The date of birth of every member (epoch days).
+     */
+    private final long[] datesOfBirth;
+
+    /**
+     * The date every member has entered the club (epoch days).
+     */
+    private final long[] enteredDates;
+
+    /**
+     * All achieved graduations (the key is the id of the graduation, the date is the date of the exam).
+     */
+    private final Relation graduations;
+
+    /**
+     * All visited seminars (the key is the ordinal of the seminar type, the date is the last day of the seminar).
+     */
+    private final Relation seminars;
+
+    /**
+     * All disciplines of the members (the key is the id of the discipline, the date is not set).
+     */
+    private final Relation disciplines;
+
+    /**
+     * All events the members participated in (the key is the id of the event, the date is the date of the event).
+     */
+    private final Relation events;
+
+    /**
+     * All championship results (the key is the id of the championship, the date is the date of the championship and
+     * the value is the reached rank).
+     */
+    private final Relation championships;
+
+    /**
+     * The membership index to find the candidates of the discipline and graduation conditions (null, if the relations
+     * of all members are scanned).
+     */
+    private MembershipIndex membershipIndex;
+
+    public MemberSnapshot(
+            LocalDate referenceDate,
+            long[] memberIds,
+            long[] datesOfBirth,
+            long[] enteredDates,
+            Relation graduations,
+            Relation seminars) {
+        this(referenceDate, memberIds, datesOfBirth, enteredDates, graduations, seminars,
+                Relation.empty(memberIds.length), Relation.empty(memberIds.length), Relation.empty(memberIds.length));
+    }
+
+    public MemberSnapshot(
+            LocalDate referenceDate,
+            long[] memberIds,
+            long[] datesOfBirth,
+            long[] enteredDates,
+            Relation graduations,
+            Relation seminars,
+            Relation disciplines,
+            Relation events,
+            Relation championships) {
+        this.referenceDate = referenceDate;
+        this.memberIds = memberIds;
+        this.datesOfBirth = datesOfBirth;
+        this.enteredDates = enteredDates;
+        this.graduations = graduations;
+        this.seminars = seminars;
+        this.disciplines = disciplines;
+        this.events = events;
+        this.championships = championships;
+    }
+
+    /**
+     * Loads a snapshot of all members from the database.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native queries against the database
+     * @param referenceDate the date the conditions should be evaluated against (usually today)
+     * @return a snapshot of all members
+     */
+    public static MemberSnapshot load(EntityManager entityManager, LocalDate referenceDate) {
+        return load(entityManager, referenceDate, null);
+    }
+
+    /**
+     * Loads a snapshot of the members with the given ids from the database. This is used to recalculate the results of
+     * only those members, whose data has changed.
+     *
+     * @param entityManager an entity manager (@PersistenceContext) to execute the native queries against the database
+     * @param referenceDate the date the conditions should be evaluated against (usually today)
+     * @param memberIds     the unique identifiers of the members to load or null to load all members
+     * @return a snapshot of the given members
+     */
+    public static MemberSnapshot load(EntityManager entityManager, LocalDate referenceDate, Collection<Long> memberIds) {
+        if (memberIds != null && memberIds.isEmpty()) {
+            var empty = Relation.empty(0);
+            return new MemberSnapshot(referenceDate, new long[0], new long[0], new long[0], empty, empty);
+        }
+
+        List<?> members = query(entityManager,
+                "SELECT id, date_of_birth, entered_date FROM member",
+                "id",
+                "ORDER BY id",
+                memberIds);
+
+        var ids = new long[members.size()];
+        var datesOfBirth = new long[members.size()];
+        var enteredDates = new long[members.size()];
+
+        for (int row = 0; row < members.size(); row++) {
+            var columns = (Object[]) members.get(row);
+            ids[row] = ((Number) columns[0]).longValue();
+            datesOfBirth[row] = toEpochDay(columns[1]);
+            enteredDates[row] = toEpochDay(columns[2]);
+        }
+
+        var graduations = Relation.load(ids, query(entityManager,
+                "SELECT graduation_member.member_id, graduation_member.graduation_id, exam.date "
+                        + "FROM graduation_member INNER JOIN exam ON (graduation_member.exam_id = exam.id)",
+                "graduation_member.member_id",
+                "ORDER BY graduation_member.member_id",
+                memberIds));
+
+        var seminars = Relation.load(ids, query(entityManager,
+                "SELECT seminar_members.member_id, seminar.seminar_type, seminar.date_to "
+                        + "FROM seminar_members INNER JOIN seminar ON (seminar_members.seminar_id = seminar.id)",
+                "seminar_members.member_id",
+                "ORDER BY seminar_members.member_id",
+                memberIds));
+
+        var disciplines = Relation.load(ids, query(entityManager,
+                "SELECT discipline_members.member_id, discipline_members.discipline_id FROM discipline_members",
+                "discipline_members.member_id",
+                "ORDER BY discipline_members.member_id",
+                memberIds));
+
+        var events = Relation.load(ids, query(entityManager,
+                "SELECT event_members.member_id, event_members.event_id, event.date "
+                        + "FROM event_members INNER JOIN event ON (event_members.event_id = event.id)",
+                "event_members.member_id",
+                "ORDER BY event_members.member_id",
+                memberIds));
+
+        var championships = Relation.load(ids, query(entityManager,
+                "SELECT championship_member.member_id, championship_member.championship_id, championship.date, "
+                        + "championship_member.rank FROM championship_member "
+                        + "INNER JOIN championship ON (championship_member.championship_id = championship.id)",
+                "championship_member.member_id",
+                "ORDER BY championship_member.member_id",
+                memberIds));
+
+        return new MemberSnapshot(referenceDate, ids, datesOfBirth, enteredDates, graduations, seminars,
+                disciplines, events, championships);
+    }
+
+    /**
+     * Uses the given membership index to find the members of a discipline or graduation instead of scanning the
+     * relations of all members. The index must contain the same relations as the snapshot.
+     *
+     * @param membershipIndex the membership index
+     * @return this snapshot
+     */
+    public MemberSnapshot withMembershipIndex(MembershipIndex membershipIndex) {
+        this.membershipIndex = membershipIndex;
+        return this;
+    }
+
+    /**
+     * Executes a native query and restricts it to the given members, if necessary.
+     *
+     * @param entityManager an entity manager to execute the native query
+     * @param select        the select and from clause of the query
+     * @param memberColumn  the column of the member id
+     * @param orderBy       the order by clause of the query
+     * @param memberIds     the unique identifiers of the members or null for all members
+     * @return the rows of the query
+     */
+    private static List<?> query(
+            EntityManager entityManager,
+            String select,
+            String memberColumn,
+            String orderBy,
+            Collection<Long> memberIds) {
+        if (memberIds == null) {
+            return entityManager.createNativeQuery(select + " " + orderBy).getResultList();
+        }
+
+        return entityManager.createNativeQuery(select + " WHERE " + memberColumn + " IN (:memberIds) " + orderBy)
+                .setParameter("memberIds", memberIds)
+                .getResultList();
+    }
+
+    /**
+     * Converts a date column of a native query result to epoch days.
+     *
+     * @param value the value of the column
+     * @return the epoch day of the date or NO_DATE, if the value is null
+     */
+    private static long toEpochDay(Object value) {
+        if (value == null) {
+            return NO_DATE;
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toEpochDay();
+        }
+        return new java.sql.Date(((java.util.Date) value).getTime()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Returns the date the relative conditions are evaluated against.
+     *
+     * @return the reference date
+     */
+    public LocalDate getReferenceDate() {
+        return referenceDate;
+    }
+
+    /**
+     * Returns the number of members in the snapshot.
+     *
+     * @return the number of members
+     */
+    public int size() {
+        return memberIds.length;
+    }
+
+    /**
+     * Returns the unique identifier of the member in the given row.
+     *
+     * @param row the row index of the member
+     * @return the unique identifier of the member
+     */
+    public long getMemberId(int row) {
+        return memberIds[row];
+    }
+
+    /**
+     * Returns the date of birth of the member in the given row.
+     *
+     * @param row the row index of the member
+     * @return the date of birth (epoch days) or NO_DATE
+     */
+    public long getDateOfBirth(int row) {
+        return datesOfBirth[row];
+    }
+
+    /**
+     * Returns the date the member in the given row has entered the club.
+     *
+     * @param row the row index of the member
+     * @return the entered date (epoch days) or NO_DATE
+     */
+    public long getEnteredDate(int row) {
+        return enteredDates[row];
+    }
+
+    /**
+     * Returns the rows of the members, which have to be checked by a condition. The members are selected from the
+     * membership index (e.g. the members of a discipline), if the snapshot has one, otherwise all rows are returned.
+     *
+     * @param members selects the member ids from the membership index
+     * @return a bit set with a bit set for every row to check
+     */
+    public BitSet getCandidateRows(Function<MembershipIndex, BitSet> members) {
+        var rows = new BitSet(memberIds.length);
+        if (membershipIndex == null) {
+            rows.set(0, memberIds.length);
+            return rows;
+        }
+
+        // the bitmaps of the index are indexed by the member id, not by the row
+        members.apply(membershipIndex).stream().forEach(memberId -> {
+            var row = Arrays.binarySearch(memberIds, memberId);
+            if (row >= 0) {
+                rows.set(row);
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * Returns all achieved graduations of the members.
+     *
+     * @return a relation with the graduation id as key and the exam date as date
+     */
+    public Relation getGraduations() {
+        return graduations;
+    }
+
+    /**
+     * Returns all visited seminars of the members.
+     *
+     * @return a relation with the seminar type ordinal as key and the last day of the seminar as date
+     */
+    public Relation getSeminars() {
+        return seminars;
+    }
+
+    /**
+     * Returns all disciplines of the members.
+     *
+     * @return a relation with the discipline id as key (without a date)
+     */
+    public Relation getDisciplines() {
+        return disciplines;
+    }
+
+    /**
+     * Returns all events the members participated in.
+     *
+     * @return a relation with the event id as key and the date of the event as date
+     */
+    public Relation getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns all championship results of the members.
+     *
+     * @return a relation with the championship id as key, the date of the championship as date and the rank as value
+     */
+    public Relation getChampionships() {
+        return championships;
+    }
+
+    /**
+     * A one to many relation between the members and a keyed and dated entry (e.g. an achieved graduation). The
+     * entries of the member in row r are stored at the positions from(r) (inclusive) to to(r) (exclusive). An entry
+     * may have an additional value (e.g. the rank of a championship result).
+     */
+    public static class Relation {
+        private final int[] offsets;
+        private final long[] keys;
+        private final long[] dates;
+        private final long[] values;
+
+        public Relation(int[] offsets, long[] keys, long[] dates) {
+            this(offsets, keys, dates, new long[keys.length]);
+        }
+
+        public Relation(int[] offsets, long[] keys, long[] dates, long[] values) {
+            this.offsets = offsets;
+            this.keys = keys;
+            this.dates = dates;
+            this.values = values;
+        }
+
+        /**
+         * Returns a relation without any entry.
+         *
+         * @param size the number of members
+         * @return an empty relation
+         */
+        public static Relation empty(int size) {
+            return new Relation(new int[size + 1], new long[0], new long[0]);
+        }
+
+        /**
+         * Builds a relation from the rows of a native query. Every row must consist of the member id, the key and
+         * optionally the date and the value and the rows must be ordered by the member id. Relations without a date
+         * select only two columns (an untyped NULL column cannot be mapped by hibernate).
+         *
+         * @param memberIds the ordered unique identifiers of all members
+         * @param rows      the rows of the native query
+         * @return the relation
+         */
+        static Relation load(long[] memberIds, List<?> rows) {
+            var offsets = new int[memberIds.length + 1];
+            var keys = new long[rows.size()];
+            var dates = new long[rows.size()];
+            var values = new long[rows.size()];
+
+            int count = 0;
+            int member = 0;
+            for (var row : rows) {
+                var columns = (Object[]) row;
+                var memberId = ((Number) columns[0]).longValue();
+
+                // close all members before the member of the current row
+                while (member < memberIds.length && memberIds[member] < memberId) {
+                    offsets[++member] = count;
+                }
+
+                // skip entries of unknown members
+                if (member == memberIds.length || memberIds[member] != memberId) {
+                    continue;
+                }
+
+                keys[count] = ((Number) columns[1]).longValue();
+                dates[count] = columns.length > 2 ? toEpochDay(columns[2]) : NO_DATE;
+                if (columns.length > 3 && columns[3] != null) {
+                    values[count] = ((Number) columns[3]).longValue();
+                }
+                count++;
+            }
+
+            // close all remaining members
+            while (member < memberIds.length) {
+                offsets[++member] = count;
+            }
+
+            return new Relation(offsets, keys, dates, values);
+        }
+
+        /**
+         * Returns the position of the first entry of the member in the given row.
+         *
+         * @param row the row index of the member
+         * @return the first position (inclusive)
+         */
+        public int from(int row) {
+            return offsets[row];
+        }
+
+        /**
+         * Returns the position after the last entry of the member in the given row.
+         *
+         * @param row the row index of the member
+         * @return the last position (exclusive)
+         */
+        public int to(int row) {
+            return offsets[row + 1];
+        }
+
+        /**
+         * Returns the key of the entry at the given position.
+         *
+         * @param position the position of the entry
+         * @return the key
+         */
+        public long getKey(int position) {
+            return keys[position];
+        }
+
+        /**
+         * Returns the date of the entry at the given position.
+         *
+         * @param position the position of the entry
+         * @return the date (epoch days) or NO_DATE
+         */
+        public long getDate(int position) {
+            return dates[position];
+        }
+
+        /**
+         * Returns the value of the entry at the given position.
+         *
+         * @param position the position of the entry
+         * @return the value (0, if the relation has no values)
+         */
+        public long getValue(int position) {
+            return values[position];
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package de.shogundb.conditions;
+
+import de.shogundb.domain.member.Member;
+import de.shogundb.domain.seminar.SeminarType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bitmap indexes over the member ids for the relations lists are filtered by most often: the members of a discipline,
+ * the members who achieved a graduation and the members who visited seminars of a type in a year. Bitmaps can be
+ * combined with fast AND, OR and ANDNOT operations instead of joining the *_members tables for every request.
+ * <p>
+ * The indexes are rebuilt at startup and every night and updated by the controllers changing the relations. Removed
+ * graduations and seminars replace all entries of the changed members with their current relations, because a member
+ * may be linked to the same key multiple times (e.g. two seminars of a type in one year). The changes applied while
+ * an index is rebuilt are recorded and applied to the rebuilt index again, so they are not lost.
+ */
+@Component
+public class MembershipIndex {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The members of every discipline (by the id of the discipline).
+     */
+    private final Index<Long> disciplines = new Index<>();
+
+    /**
+     * The members who achieved a graduation (by the id of the graduation).
+     */
+    private final Index<Long> graduations = new Index<>();
+
+    /**
+     * The members who visited a seminar of a type in a year (by the seminar type and the year).
+     */
+    private final Index<List<Object>> seminars = new Index<>();
+
+    /**
+     * Rebuilds all indexes from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shogundb.index.cron:0 30 3 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildDisciplines();
+        rebuildGraduations();
+        rebuildSeminars();
+
+        logger.info("Rebuilt the membership indexes");
+    }
+
+    /**
+     * Rebuilds the index of the discipline members from the database.
+     */
+    @Transactional(readOnly = true)
+    public void rebuildDisciplines() {
+        rebuild(disciplines, bitmaps -> {
+            for (var row : query("SELECT discipline_id, member_id FROM discipline_members")) {
+                add(bitmaps, ((Number) row[0]).longValue(), row[1]);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index of the achieved graduations from the database.
+     */
+    @Transactional(readOnly = true)
+    public void rebuildGraduations() {
+        rebuild(graduations, bitmaps -> {
+            for (var row : query("SELECT graduation_id, member_id FROM graduation_member")) {
+                add(bitmaps, ((Number) row[0]).longValue(), row[1]);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index of the visited seminars from the database.
+     */
+    @Transactional(readOnly = true)
+    public void rebuildSeminars() {
+        rebuild(seminars, bitmaps -> {
+            for (var row : query("SELECT seminar.seminar_type, seminar.date_to, seminar_members.member_id "
+                    + "FROM seminar_members INNER JOIN seminar ON (seminar_members.seminar_id = seminar.id)")) {
+                var date = ConditionQuery.toLocalDate(row[1]);
+                if (date != null) {
+                    var seminarType = SeminarType.values()[((Number) row[0]).intValue()];
+                    add(bitmaps, seminarKey(seminarType, date.getYear()), row[2]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a member to the index of a discipline.
+     *
+     * @param disciplineId the unique identifier of the discipline
+     * @param memberId     the unique identifier of the member
+     */
+    public void addDisciplineMember(Long disciplineId, Long memberId) {
+        change(disciplines, bitmaps -> add(bitmaps, disciplineId, memberId));
+    }
+
+    /**
+     * Removes a member from the index of a discipline.
+     *
+     * @param disciplineId the unique identifier of the discipline
+     * @param memberId     the unique identifier of the member
+     */
+    public void removeDisciplineMember(Long disciplineId, Long memberId) {
+        change(disciplines, bitmaps -> {
+            var members = bitmaps.get(disciplineId);
+            if (members != null) {
+                members.clear(toIndex(memberId));
+            }
+        });
+    }
+
+    /**
+     * Adds a member to the index of an achieved graduation.
+     *
+     * @param graduationId the unique identifier of the graduation
+     * @param memberId     the unique identifier of the member
+     */
+    public void addGraduationMember(Long graduationId, Long memberId) {
+        change(graduations, bitmaps -> add(bitmaps, graduationId, memberId));
+    }
+
+    /**
+     * Adds a member to the index of the visited seminars.
+     *
+     * @param seminarType the type of the seminar
+     * @param year        the year of the seminar
+     * @param memberId    the unique identifier of the member
+     */
+    public void addSeminarMember(SeminarType seminarType, int year, Long memberId) {
+        change(seminars, bitmaps -> add(bitmaps, seminarKey(seminarType, year), memberId));
+    }
+
+    /**
+     * Replaces the disciplines of a member in the index with the current disciplines of the member.
+     *
+     * @param member the changed member
+     */
+    public void updateDisciplines(Member member) {
+        var disciplineIds = new ArrayList<Long>();
+        member.getDisciplines().forEach(discipline -> disciplineIds.add(discipline.getId()));
+
+        replace(disciplines, member.getId(), disciplineIds);
+    }
+
+    /**
+     * Replaces the achieved graduations of a member in the index with the current graduations of the member.
+     *
+     * @param member the changed member
+     */
+    public void updateGraduations(Member member) {
+        var graduationIds = new ArrayList<Long>();
+        member.getGraduations().forEach(graduationMember ->
+                graduationIds.add(graduationMember.getGraduation().getId()));
+
+        replace(graduations, member.getId(), graduationIds);
+    }
+
+    /**
+     * Replaces the visited seminars of a member in the index with the current seminars of the member.
+     *
+     * @param member the changed member
+     */
+    public void updateSeminars(Member member) {
+        var seminarKeys = new ArrayList<List<Object>>();
+        for (var seminar : member.getSeminars()) {
+            if (seminar.getDateTo() != null) {
+                seminarKeys.add(seminarKey(seminar.getSeminarType(), seminar.getDateTo().getYear()));
+            }
+        }
+
+        replace(seminars, member.getId(), seminarKeys);
+    }
+
+    /**
+     * Removes a deleted discipline from the index.
+     *
+     * @param disciplineId the unique identifier of the discipline
+     */
+    public void removeDiscipline(Long disciplineId) {
+        change(disciplines, bitmaps -> bitmaps.remove(disciplineId));
+    }
+
+    /**
+     * Removes a deleted graduation from the index.
+     *
+     * @param graduationId the unique identifier of the graduation
+     */
+    public void removeGraduation(Long graduationId) {
+        change(graduations, bitmaps -> bitmaps.remove(graduationId));
+    }
+
+    /**
+     * Removes a deleted member from all indexes.
+     *
+     * @param memberId the unique identifier of the member
+     */
+    public void removeMember(Long memberId) {
+        change(disciplines, bitmaps -> bitmaps.values().forEach(members -> members.clear(toIndex(memberId))));
+        change(graduations, bitmaps -> bitmaps.values().forEach(members -> members.clear(toIndex(memberId))));
+        change(seminars, bitmaps -> bitmaps.values().forEach(members -> members.clear(toIndex(memberId))));
+    }
+
+    /**
+     * Returns all members of a discipline.
+     *
+     * @param disciplineId the unique identifier of the discipline
+     * @return a bit set with a bit set for every member id (the bit set may be modified)
+     */
+    public BitSet getDisciplineMembers(Long disciplineId) {
+        return get(disciplines, disciplineId);
+    }
+
+    /**
+     * Returns all members, who achieved a graduation.
+     *
+     * @param graduationId the unique identifier of the graduation
+     * @return a bit set with a bit set for every member id (the bit set may be modified)
+     */
+    public BitSet getGraduationMembers(Long graduationId) {
+        return get(graduations, graduationId);
+    }
+
+    /**
+     * Returns all members, who visited a seminar of the given type in the given year.
+     *
+     * @param seminarType the type of the seminar
+     * @param year        the year of the seminar (the year of the last day of the seminar)
+     * @return a bit set with a bit set for every member id (the bit set may be modified)
+     */
+    public BitSet getSeminarMembers(SeminarType seminarType, int year) {
+        return get(seminars, seminarKey(seminarType, year));
+    }
+
+    /**
+     * Rebuilds an index. The bitmaps are read without holding the lock, so the changes applied meanwhile are recorded
+     * and applied to the new bitmaps again before they replace the old ones. Otherwise they would be lost, if the
+     * query has read the relation before they were written.
+     *
+     * @param index  the index to rebuild
+     * @param loader reads the bitmaps of the index from the database
+     * @param <K>    the type of the keys of the index
+     */
+    private <K> void rebuild(Index<K> index, Consumer<Map<K, BitSet>> loader) {
+        // only one rebuild of an index may record the changes
+        synchronized (index) {
+            synchronized (this) {
+                index.changes = new ArrayList<>();
+            }
+
+            var bitmaps = new HashMap<K, BitSet>();
+            try {
+                loader.accept(bitmaps);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    index.changes = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                index.changes.forEach(change -> change.accept(bitmaps));
+                index.changes = null;
+                index.bitmaps = bitmaps;
+            }
+        }
+    }
+
+    /**
+     * Applies a change to an index and records it, if the index is being rebuilt.
+     *
+     * @param index  the index to change
+     * @param change the change of the bitmaps
+     * @param <K>    the type of the keys of the index
+     */
+    private synchronized <K> void change(Index<K> index, Consumer<Map<K, BitSet>> change) {
+        change.accept(index.bitmaps);
+        if (index.changes != null) {
+            index.changes.add(change);
+        }
+    }
+
+    /**
+     * Replaces all entries of a member in an index with the given keys.
+     *
+     * @param index    the index to change
+     * @param memberId the unique identifier of the member
+     * @param keys     the keys of all bitmaps, which contain the member
+     * @param <K>      the type of the keys of the index
+     */
+    private <K> void replace(Index<K> index, Long memberId, Collection<K> keys) {
+        change(index, bitmaps -> {
+            bitmaps.values().forEach(members -> members.clear(toIndex(memberId)));
+            keys.forEach(key -> add(bitmaps, key, memberId));
+        });
+    }
+
+    /**
+     * Returns a copy of the bitmap with the given key.
+     *
+     * @param index the index
+     * @param key   the key of the bitmap
+     * @param <K>   the type of the keys of the index
+     * @return a copy of the bitmap or an empty bitmap, if the key does not exist
+     */
+    private synchronized <K> BitSet get(Index<K> index, K key) {
+        return (BitSet) index.bitmaps.getOrDefault(key, new BitSet()).clone();
+    }
+
+    /**
+     * Executes a native query and returns all rows.
+     *
+     * @param sql the sql query
+     * @return the rows of the result
+     */
+    private List<Object[]> query(String sql) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(sql).getResultList();
+        return rows;
+    }
+
+    /**
+     * Adds a member to the bitmap with the given key.
+     *
+     * @param bitmaps  the bitmaps of an index
+     * @param key      the key of the bitmap
+     * @param memberId the unique identifier of the member
+     * @param <K>      the type of the keys of the index
+     */
+    private static <K> void add(Map<K, BitSet> bitmaps, K key, Object memberId) {
+        bitmaps.computeIfAbsent(key, k -> new BitSet()).set(toIndex(((Number) memberId).longValue()));
+    }
+
+    private static List<Object> seminarKey(SeminarType seminarType, int year) {
+        return List.of(seminarType, year);
+    }
+
+    private static int toIndex(long memberId) {
+        return Math.toIntExact(memberId);
+    }
+
+    /**
+     * The bitmaps of one relation. All fields are guarded by the membership index.
+     *
+     * @param <K> the type of the keys of the bitmaps
+     */
+    private static class Index<K> {
+        private Map<K, BitSet> bitmaps = new HashMap<>();
+
+        /**
+         * The changes applied since the rebuild of the index has started (null, if the index is not rebuilt).
+         */
+        private List<Consumer<Map<K, BitSet>>> changes;
+    }
+}
@@ -1,7 +1,71 @@
 package de.shogundb.conditions;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
 public enum PeriodFormat {
-    DAY,
-    MONTH,
-    YEAR
+    DAY(ChronoUnit.DAYS),
+    MONTH(ChronoUnit.MONTHS),
+    YEAR(ChronoUnit.YEARS);
+
+    /**
+     * The minimum date a calculated date is clamped to (the minimum date supported by MySQL).
+     */
+    public static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+
+    /**
+     * The java time unit of the period format.
+     */
+    private final ChronoUnit unit;
+
+    PeriodFormat(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the java time unit of the period format.
+     *
+     * @return the java time unit (DAYS, MONTHS or YEARS)
+     */
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Subtracts the given amount of this period format from the given date. Results before the minimum date (e.g. an
+     * age of Integer.MAX_VALUE years) are clamped to the minimum date, so they can still be bound to a sql statement.
+     *
+     * @param date   the date to subtract from
+     * @param amount the amount of days/months/years to subtract
+     * @return the resulting date
+     */
+    public LocalDate subtractFrom(LocalDate date, long amount) {
+        try {
+            var result = date.minus(amount, unit);
+            return result.isBefore(MIN_DATE) ? MIN_DATE : result;
+        } catch (DateTimeException | ArithmeticException e) {
+            return MIN_DATE;
+        }
+    }
+
+    /**
+     * Adds the given amount of this period format to the given date. This is the inverse of subtractFrom, the result
+     * is the earliest date d, for which subtractFrom(d, amount) is not before the given date (e.g. the first day a
+     * member born on February 29 is one year old is March 1 of the next year).
+     *
+     * @param date   the date to add to
+     * @param amount the amount of days/months/years to add
+     * @return the resulting date or LocalDate.MAX, if the result is not supported
+     */
+    public LocalDate addTo(LocalDate date, long amount) {
+        try {
+            var result = date.plus(amount, unit);
+
+            // the end of a month is shortened by plus, so the subtraction may not reach the date again
+            return result.minus(amount, unit).isBefore(date) ? result.plusDays(1) : result;
+        } catch (DateTimeException | ArithmeticException e) {
+            return LocalDate.MAX;
+        }
+    }
 }
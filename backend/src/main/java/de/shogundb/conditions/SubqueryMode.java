@@ -0,0 +1,16 @@
+package de.shogundb.conditions;
+
+/**
+ * The way conditions on related tables (graduations, seminars) are translated to sql.
+ */
+public enum SubqueryMode {
+    /**
+     * A correlated subquery, which is executed for every row of the member table.
+     */
+    CORRELATED,
+
+    /**
+     * An uncorrelated, grouped subquery, which is executed once and semi-joined with the member table.
+     */
+    SEMI_JOIN
+}
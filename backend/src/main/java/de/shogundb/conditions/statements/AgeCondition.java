@@ -2,14 +2,21 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 
-import static de.shogundb.conditions.DatabaseType.H2;
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+import static de.shogundb.conditions.PeriodFormat.YEAR;
 
 /**
  * Adds a condition with the minimum minAge the member must have.
@@ -33,34 +40,68 @@ public class AgeCondition implements Condition {
     private int maxAge;
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
-        var unit = databaseType == H2 ? "'YEARS'" : "YEAR";
-        var diffMethod = databaseType == H2 ? "GET_DIFF" : "TIMESTAMPDIFF";
-        if (minAge == maxAge) {
-            return new StringBuilder()
-                    .append("(")
-                    .append(diffMethod)
-                    .append("(")
-                    .append(unit).append(", member.date_of_birth, CURDATE()) = ")
-                    .append(minAge)
-                    .append(")")
-                    .toString();
-        } else {
-            return new StringBuilder()
-                    .append("((")
-                    .append(diffMethod)
-                    .append("(")
-                    .append(unit)
-                    .append(", member.date_of_birth, CURDATE()) >= ")
-                    .append(minAge)
-                    .append(") AND (")
-                    .append(diffMethod)
-                    .append("(")
-                    .append(unit)
-                    .append(", member.date_of_birth, CURDATE()) <= ")
-                    .append(maxAge)
-                    .append("))")
-                    .toString();
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        return "((member.date_of_birth <= ?) AND (member.date_of_birth > ?))";
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(latestDateOfBirth(referenceDate));
+        parameters.add(earliestDateOfBirth(referenceDate));
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("AGE");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var latestDateOfBirth = latestDateOfBirth(snapshot.getReferenceDate()).toEpochDay();
+        var earliestDateOfBirth = earliestDateOfBirth(snapshot.getReferenceDate()).toEpochDay();
+
+        var result = new BitSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            var dateOfBirth = snapshot.getDateOfBirth(row);
+            if (dateOfBirth != NO_DATE && dateOfBirth <= latestDateOfBirth && dateOfBirth > earliestDateOfBirth) {
+                result.set(row);
+            }
         }
+        return result;
+    }
+
+    /**
+     * Returns the latest date of birth of a member with the minimum age. A member has at least the age n, if he was
+     * born on or before the reference date minus n years.
+     *
+     * @param referenceDate the date the age is calculated for
+     * @return the latest date of birth (inclusive)
+     */
+    private LocalDate latestDateOfBirth(LocalDate referenceDate) {
+        return YEAR.subtractFrom(referenceDate, minAge);
+    }
+
+    /**
+     * Returns the latest date of birth of a member, who is older than the maximum age.
+     *
+     * @param referenceDate the date the age is calculated for
+     * @return the earliest date of birth (exclusive)
+     */
+    private LocalDate earliestDateOfBirth(LocalDate referenceDate) {
+        return YEAR.subtractFrom(referenceDate, maxAge + 1L);
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var dateOfBirth = snapshot.getDateOfBirth(row);
+        if (dateOfBirth == NO_DATE) {
+            return DateRanges.none();
+        }
+
+        // the member is at least minAge years old and not yet maxAge + 1 years old
+        var birthday = LocalDate.ofEpochDay(dateOfBirth);
+        return DateRanges.between(
+                YEAR.addTo(birthday, minAge).toEpochDay(),
+                YEAR.addTo(birthday, maxAge + 1L).toEpochDay());
     }
 }
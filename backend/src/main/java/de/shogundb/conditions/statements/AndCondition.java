@@ -2,12 +2,17 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -23,7 +28,7 @@ public class AndCondition implements Condition {
     private List<Condition> conditions = new ArrayList<>();
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
         var query = new StringBuilder();
 
         query.append("(");
@@ -38,7 +43,7 @@ public class AndCondition implements Condition {
                 } else {
                     firstPassed = true;
                 }
-                query.append(condition.getSQLStatement(databaseType));
+                query.append(condition.getSQLStatement(databaseType, subqueryMode));
             }
         } else {
             query.append(1);
@@ -47,4 +52,52 @@ public class AndCondition implements Condition {
 
         return query.toString();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        conditions.forEach(condition -> condition.addParameters(parameters, referenceDate));
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("AND(");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                shape.append(",");
+            }
+            conditions.get(i).appendShape(shape);
+        }
+        shape.append(")");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var result = new BitSet(snapshot.size());
+        result.set(0, snapshot.size());
+
+        for (var condition : conditions) {
+            result.and(condition.evaluate(snapshot));
+
+            // no need to evaluate the remaining conditions, if no member is left
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var result = DateRanges.all();
+
+        for (var condition : conditions) {
+            result = result.intersect(condition.getFulfilledDates(snapshot, row));
+
+            // no need to evaluate the remaining conditions, if no date is left
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package de.shogundb.conditions.statements;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+
+/**
+ * Adds a condition with the minimum rank a member must have reached at a championship (championships in the future are
+ * not counted).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonDeserialize(as = ChampionshipCondition.class)
+public class ChampionshipCondition implements Condition {
+    /**
+     * The unique identifier of the championship or null for any championship.
+     */
+    private Long id;
+
+    /**
+     * The minimum rank the member must have reached (e.g. 3 for one of the first three places).
+     */
+    @NotNull
+    private int rank;
+
+    @Override
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        // the members with the rank are selected once in both modes
+        var query = new StringBuilder()
+                .append("(member.id IN (SELECT championship_member.member_id FROM championship_member ")
+                .append("INNER JOIN championship ON (championship_member.championship_id = championship.id) ")
+                .append("WHERE ");
+        if (id != null) {
+            query.append("championship.id = ? AND ");
+        }
+
+        return query
+                .append("championship_member.rank BETWEEN 1 AND ? AND championship.date <= ?))")
+                .toString();
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        if (id != null) {
+            parameters.add(id);
+        }
+        parameters.add(rank);
+        parameters.add(referenceDate);
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append(id != null ? "CHAMPIONSHIP" : "ANY_CHAMPIONSHIP");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var referenceDate = snapshot.getReferenceDate().toEpochDay();
+
+        var result = new BitSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            var championshipDate = getEarliestChampionshipDate(snapshot, row);
+            if (championshipDate != NO_DATE && championshipDate <= referenceDate) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var championshipDate = getEarliestChampionshipDate(snapshot, row);
+
+        return championshipDate != NO_DATE ? DateRanges.from(championshipDate) : DateRanges.none();
+    }
+
+    /**
+     * Returns the date of the earliest championship, at which the member in the given row has reached the rank.
+     *
+     * @param snapshot the snapshot of the members
+     * @param row      the row index of the member
+     * @return the date of the championship (epoch days) or NO_DATE
+     */
+    private long getEarliestChampionshipDate(MemberSnapshot snapshot, int row) {
+        var championships = snapshot.getChampionships();
+
+        var earliestDate = NO_DATE;
+        for (int position = championships.from(row); position < championships.to(row); position++) {
+            var date = championships.getDate(position);
+            var reachedRank = championships.getValue(position);
+            if ((id == null || championships.getKey(position) == id)
+                    && reachedRank >= 1 && reachedRank <= rank
+                    && date != NO_DATE
+                    && (earliestDate == NO_DATE || date < earliestDate)) {
+                earliestDate = date;
+            }
+        }
+        return earliestDate;
+    }
+}
@@ -3,6 +3,13 @@ package de.shogundb.conditions.statements;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.ConditionDeserializer;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * An interface to get all statements conditions for a sql query.
@@ -10,9 +17,48 @@ import de.shogundb.conditions.DatabaseType;
 @JsonDeserialize(using = ConditionDeserializer.class)
 public interface Condition {
     /**
-     * Returns the SQL Statement.
+     * Returns the parameterized SQL Statement. All values of the condition are replaced by a '?' placeholder, so the
+     * statement only depends on the shape of the condition (see `appendShape()`). Relative periods (age, membership
+     * etc.) are compared as plain date ranges, so the database can use an index on the date columns.
      *
+     * @param databaseType the type of the database (H2 or MYSQL)
+     * @param subqueryMode the way conditions on related tables are translated (the bound values are the same)
      * @return a sql statement, based on the attributes of the condition
      */
-    String getSQLStatement(DatabaseType databaseType);
+    String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode);
+
+    /**
+     * Adds the values to bind to the placeholders of the sql statement (in order of appearance). Relative periods are
+     * converted to cutoff dates once per query.
+     *
+     * @param parameters    the list to add the values to
+     * @param referenceDate the date the relative periods are calculated from (usually today)
+     */
+    void addParameters(List<Object> parameters, LocalDate referenceDate);
+
+    /**
+     * Appends a key which describes everything the sql statement depends on, except of the bound values. Two
+     * conditions with the same shape result in the same sql statement.
+     *
+     * @param shape the builder to append the shape to
+     */
+    void appendShape(StringBuilder shape);
+
+    /**
+     * Evaluates the condition against an in-memory snapshot of all members.
+     *
+     * @param snapshot the snapshot of all members
+     * @return a bit set with the row indices (of the snapshot) of all members matching the condition
+     */
+    BitSet evaluate(MemberSnapshot snapshot);
+
+    /**
+     * Calculates all reference dates, on which the member in the given row of the snapshot fulfills the condition. The
+     * data of the member is assumed not to change, but exams and seminars in the future are taken into account.
+     *
+     * @param snapshot the snapshot of the members
+     * @param row      the row index of the member
+     * @return a set of all dates the member fulfills the condition on
+     */
+    DateRanges getFulfilledDates(MemberSnapshot snapshot, int row);
 }
@@ -0,0 +1,79 @@
+package de.shogundb.conditions.statements;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Adds a condition with the discipline the member must be a member of.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonDeserialize(as = DisciplineCondition.class)
+public class DisciplineCondition implements Condition {
+    /**
+     * The unique identifier of the discipline.
+     */
+    @NotNull
+    private Long id;
+
+    @Override
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        // the members of the discipline are selected once in both modes
+        return new StringBuilder()
+                .append("(member.id IN (SELECT discipline_members.member_id FROM discipline_members ")
+                .append("WHERE discipline_members.discipline_id = ?))")
+                .toString();
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(id);
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("DISCIPLINE");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var result = new BitSet(snapshot.size());
+        var rows = snapshot.getCandidateRows(membershipIndex -> membershipIndex.getDisciplineMembers(id));
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (isMember(snapshot, row)) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        // the date a member has joined a discipline is not stored
+        return isMember(snapshot, row) ? DateRanges.all() : DateRanges.none();
+    }
+
+    private boolean isMember(MemberSnapshot snapshot, int row) {
+        var disciplines = snapshot.getDisciplines();
+        for (int position = disciplines.from(row); position < disciplines.to(row); position++) {
+            if (disciplines.getKey(position) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
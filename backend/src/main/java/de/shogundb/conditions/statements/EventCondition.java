@@ -0,0 +1,93 @@
+package de.shogundb.conditions.statements;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+
+/**
+ * Adds a condition with the event the member must have participated in (events in the future are not counted).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonDeserialize(as = EventCondition.class)
+public class EventCondition implements Condition {
+    /**
+     * The unique identifier of the event.
+     */
+    @NotNull
+    private Long id;
+
+    @Override
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        // the participants of the event are selected once in both modes
+        return new StringBuilder()
+                .append("(member.id IN (SELECT event_members.member_id FROM event_members ")
+                .append("INNER JOIN event ON (event_members.event_id = event.id) ")
+                .append("WHERE event_members.event_id = ? AND event.date <= ?))")
+                .toString();
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(id);
+        parameters.add(referenceDate);
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("EVENT");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var referenceDate = snapshot.getReferenceDate().toEpochDay();
+
+        var result = new BitSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            var eventDate = getEventDate(snapshot, row);
+            if (eventDate != NO_DATE && eventDate <= referenceDate) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var eventDate = getEventDate(snapshot, row);
+
+        return eventDate != NO_DATE ? DateRanges.from(eventDate) : DateRanges.none();
+    }
+
+    /**
+     * Returns the date of the event, if the member in the given row has participated in it.
+     *
+     * @param snapshot the snapshot of the members
+     * @param row      the row index of the member
+     * @return the date of the event (epoch days) or NO_DATE
+     */
+    private long getEventDate(MemberSnapshot snapshot, int row) {
+        var events = snapshot.getEvents();
+        for (int position = events.from(row); position < events.to(row); position++) {
+            if (events.getKey(position) == id) {
+                return events.getDate(position);
+            }
+        }
+        return NO_DATE;
+    }
+}
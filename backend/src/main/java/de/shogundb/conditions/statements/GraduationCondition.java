@@ -2,13 +2,22 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
 import de.shogundb.conditions.PeriodFormat;
+import de.shogundb.conditions.SubqueryMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+import static de.shogundb.conditions.SubqueryMode.SEMI_JOIN;
 
 /**
  * Adds a condition with the time which must be elapsed since the exam of the given graduation.
@@ -39,18 +48,73 @@ public class GraduationCondition implements Condition {
     private PeriodFormat periodFormat;
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        if (subqueryMode == SEMI_JOIN) {
+            // select all members with the graduation once and join them with the member table
+            return new StringBuilder()
+                    .append("(member.id IN (SELECT graduation_member.member_id FROM graduation_member ")
+                    .append("INNER JOIN exam ON (graduation_member.exam_id = exam.id) ")
+                    .append("WHERE graduation_member.graduation_id = ? AND exam.date <= ? ")
+                    .append("GROUP BY graduation_member.member_id))")
+                    .toString();
+        }
+
         return new StringBuilder()
-                .append("(1 = (SELECT COUNT(*) FROM graduation ")
+                .append("(1 <= (SELECT COUNT(*) FROM graduation ")
                 .append("INNER JOIN graduation_member ON (graduation.id = graduation_member.graduation_id) ")
                 .append("INNER JOIN exam ON (graduation_member.exam_id = exam.id) ")
-                .append("WHERE graduation.id = ")
-                .append(id)
-                .append(" AND graduation_member.member_id = member.id AND exam.date < NOW() - INTERVAL ")
-                .append(period)
-                .append(" ")
-                .append(periodFormat)
-                .append(" LIMIT 1))")
+                .append("WHERE graduation.id = ? ")
+                .append("AND graduation_member.member_id = member.id AND exam.date <= ? LIMIT 1))")
                 .toString();
     }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(id);
+        parameters.add(periodFormat.subtractFrom(referenceDate, period));
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("GRADUATION");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var latestExamDate = periodFormat.subtractFrom(snapshot.getReferenceDate(), period).toEpochDay();
+        var graduations = snapshot.getGraduations();
+
+        // only the members who achieved the graduation have to be checked
+        var result = new BitSet(snapshot.size());
+        var rows = snapshot.getCandidateRows(membershipIndex -> membershipIndex.getGraduationMembers(id));
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            for (int position = graduations.from(row); position < graduations.to(row); position++) {
+                var examDate = graduations.getDate(position);
+                if (graduations.getKey(position) == id && examDate != NO_DATE && examDate <= latestExamDate) {
+                    result.set(row);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var graduations = snapshot.getGraduations();
+
+        // the period since the earliest exam of the graduation must be elapsed
+        var earliestExamDate = Long.MAX_VALUE;
+        for (int position = graduations.from(row); position < graduations.to(row); position++) {
+            var examDate = graduations.getDate(position);
+            if (graduations.getKey(position) == id && examDate != NO_DATE) {
+                earliestExamDate = Math.min(earliestExamDate, examDate);
+            }
+        }
+
+        if (earliestExamDate == Long.MAX_VALUE) {
+            return DateRanges.none();
+        }
+        return DateRanges.from(periodFormat.addTo(LocalDate.ofEpochDay(earliestExamDate), period).toEpochDay());
+    }
 }
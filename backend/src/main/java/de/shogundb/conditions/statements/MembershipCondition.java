@@ -2,15 +2,21 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
 import de.shogundb.conditions.PeriodFormat;
+import de.shogundb.conditions.SubqueryMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
 
-import static de.shogundb.conditions.DatabaseType.H2;
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
 
 /**
  * Adds a condition with the period of time a member must be a member.
@@ -34,17 +40,41 @@ public class MembershipCondition implements Condition {
     private PeriodFormat periodFormat;
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
-        var unit = databaseType == H2 ? "'" + periodFormat + "S'" : periodFormat;
-        var diffMethod = databaseType == H2 ? "GET_DIFF" : "TIMESTAMPDIFF";
-        return new StringBuilder()
-                .append("(")
-                .append(diffMethod)
-                .append("(")
-                .append(unit)
-                .append(", member.entered_date, CURDATE()) >= ")
-                .append(period)
-                .append(")")
-                .toString();
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        return "(member.entered_date <= ?)";
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(periodFormat.subtractFrom(referenceDate, period));
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("MEMBERSHIP");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var latestEnteredDate = periodFormat.subtractFrom(snapshot.getReferenceDate(), period).toEpochDay();
+
+        var result = new BitSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            var enteredDate = snapshot.getEnteredDate(row);
+            if (enteredDate != NO_DATE && enteredDate <= latestEnteredDate) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var enteredDate = snapshot.getEnteredDate(row);
+        if (enteredDate == NO_DATE) {
+            return DateRanges.none();
+        }
+
+        return DateRanges.from(periodFormat.addTo(LocalDate.ofEpochDay(enteredDate), period).toEpochDay());
     }
 }
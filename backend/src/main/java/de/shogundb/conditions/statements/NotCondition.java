@@ -0,0 +1,61 @@
+package de.shogundb.conditions.statements;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Adds a NOT operation with a condition which must be false.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonDeserialize(as = NotCondition.class)
+public class NotCondition implements Condition {
+    @NotNull
+    private Condition condition;
+
+    @Override
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        // a comparison with a missing value (NULL) is false, so the negation must be true
+        return "(NOT COALESCE(" + condition.getSQLStatement(databaseType, subqueryMode) + ", FALSE))";
+    }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        condition.addParameters(parameters, referenceDate);
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("NOT(");
+        condition.appendShape(shape);
+        shape.append(")");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        // the result of the nested condition may be shared (e.g. by a batch evaluation), so it must not be modified
+        var result = (BitSet) condition.evaluate(snapshot).clone();
+        result.flip(0, snapshot.size());
+
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        return condition.getFulfilledDates(snapshot, row).complement();
+    }
+}
@@ -2,13 +2,18 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.SubqueryMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotEmpty;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -25,7 +30,7 @@ public class OrCondition implements Condition {
     private List<Condition> conditions = new ArrayList<>();
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
         var query = new StringBuilder();
 
         query.append("(");
@@ -40,7 +45,7 @@ public class OrCondition implements Condition {
                 } else {
                     firstPassed = true;
                 }
-                query.append(condition.getSQLStatement(databaseType));
+                query.append(condition.getSQLStatement(databaseType, subqueryMode));
             }
         } else {
             query.append(0);
@@ -49,4 +54,46 @@ public class OrCondition implements Condition {
 
         return query.toString();
     }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        conditions.forEach(condition -> condition.addParameters(parameters, referenceDate));
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("OR(");
+        for (int i = 0; i < conditions.size(); i++) {
+            if (i > 0) {
+                shape.append(",");
+            }
+            conditions.get(i).appendShape(shape);
+        }
+        shape.append(")");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var result = new BitSet(snapshot.size());
+
+        for (var condition : conditions) {
+            result.or(condition.evaluate(snapshot));
+
+            // no need to evaluate the remaining conditions, if all members are matching
+            if (result.cardinality() == snapshot.size()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var result = DateRanges.none();
+
+        for (var condition : conditions) {
+            result = result.union(condition.getFulfilledDates(snapshot, row));
+        }
+        return result;
+    }
 }
@@ -2,7 +2,10 @@ package de.shogundb.conditions.statements;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.DateRanges;
+import de.shogundb.conditions.MemberSnapshot;
 import de.shogundb.conditions.PeriodFormat;
+import de.shogundb.conditions.SubqueryMode;
 import de.shogundb.domain.seminar.SeminarType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -10,10 +13,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
+import static de.shogundb.conditions.SubqueryMode.SEMI_JOIN;
 
 /**
  * Adds a condition with the quantity of seminars of a special type a member must have visited within a period of time.
- * TODO: fix this condition to work with h2 and mysql
  */
 @Data
 @AllArgsConstructor
@@ -46,22 +55,85 @@ public class SeminarCondition implements Condition {
     private PeriodFormat periodFormat;
 
     @Override
-    public String getSQLStatement(DatabaseType databaseType) {
+    public String getSQLStatement(DatabaseType databaseType, SubqueryMode subqueryMode) {
+        if (subqueryMode == SEMI_JOIN) {
+            // count the seminars of all members once and join the members with enough seminars with the member table
+            return new StringBuilder()
+                    .append("(member.id IN (SELECT seminar_members.member_id FROM seminar ")
+                    .append("INNER JOIN seminar_members ON (seminar.id = seminar_members.seminar_id)")
+                    .append(" WHERE ")
+                    .append("seminar.date_to <= ? AND seminar.seminar_type = ? ")
+                    .append("GROUP BY seminar_members.member_id HAVING COUNT(*) >= ?))")
+                    .toString();
+        }
+
         return new StringBuilder()
-                .append("(")
-                .append(quantity)
-                .append(" = (SELECT COUNT(seminar_members.member_id) FROM seminar ")
+                .append("((SELECT COUNT(seminar_members.member_id) FROM seminar ")
                 .append("INNER JOIN seminar_members ON (seminar.id = seminar_members.seminar_id)")
                 .append(" WHERE ")
-                .append("seminar.date_to < (NOW() - INTERVAL ")
-                .append(period)
-                .append(" ")
-                .append(periodFormat)
-                .append(") AND seminar_members.member_id = member.id AND seminar.seminar_type = '")
-                .append(seminarType)
-                .append("' LIMIT ")
-                .append(quantity)
-                .append("))")
+                .append("seminar.date_to <= ? AND seminar_members.member_id = member.id ")
+                .append("AND seminar.seminar_type = ?) >= ?)")
                 .toString();
     }
+
+    @Override
+    public void addParameters(List<Object> parameters, LocalDate referenceDate) {
+        parameters.add(periodFormat.subtractFrom(referenceDate, period));
+        parameters.add(seminarType.ordinal());
+        parameters.add(quantity);
+    }
+
+    @Override
+    public void appendShape(StringBuilder shape) {
+        shape.append("SEMINAR");
+    }
+
+    @Override
+    public BitSet evaluate(MemberSnapshot snapshot) {
+        var latestSeminarDate = periodFormat.subtractFrom(snapshot.getReferenceDate(), period).toEpochDay();
+        var seminars = snapshot.getSeminars();
+
+        var result = new BitSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row++) {
+            int count = 0;
+            for (int position = seminars.from(row); position < seminars.to(row) && count < quantity; position++) {
+                var seminarDate = seminars.getDate(position);
+                if (seminars.getKey(position) == seminarType.ordinal()
+                        && seminarDate != NO_DATE
+                        && seminarDate <= latestSeminarDate) {
+                    count++;
+                }
+            }
+            if (count >= quantity) {
+                result.set(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public DateRanges getFulfilledDates(MemberSnapshot snapshot, int row) {
+        var seminars = snapshot.getSeminars();
+
+        // collect the dates of all seminars of the type
+        var seminarDates = new long[seminars.to(row) - seminars.from(row)];
+        int count = 0;
+        for (int position = seminars.from(row); position < seminars.to(row); position++) {
+            var seminarDate = seminars.getDate(position);
+            if (seminars.getKey(position) == seminarType.ordinal() && seminarDate != NO_DATE) {
+                seminarDates[count++] = seminarDate;
+            }
+        }
+
+        if (count < quantity) {
+            return DateRanges.none();
+        } else if (quantity <= 0) {
+            return DateRanges.all();
+        }
+
+        // the period must be elapsed since the n-th seminar (n is the quantity)
+        Arrays.sort(seminarDates, 0, count);
+        var seminarDate = LocalDate.ofEpochDay(seminarDates[quantity - 1]);
+        return DateRanges.from(periodFormat.addTo(seminarDate, period).toEpochDay());
+    }
 }
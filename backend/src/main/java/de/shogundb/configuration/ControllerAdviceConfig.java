@@ -1,5 +1,7 @@
 package de.shogundb.configuration;
 
+import de.shogundb.conditions.ConditionTimeoutException;
+import de.shogundb.conditions.ConditionTooExpensiveException;
 import de.shogundb.domain.championship.ChampionshipMemberNotFoundException;
 import de.shogundb.domain.championship.ChampionshipNotFoundException;
 import de.shogundb.domain.contributionClass.ContributionClassNotFoundException;
@@ -11,13 +13,18 @@ import de.shogundb.domain.graduation.GraduationNotFoundException;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.person.PersonNotFoundException;
 import de.shogundb.domain.seminar.SeminarNotFoundException;
+import de.shogundb.domain.token.LoginThrottledException;
+import de.shogundb.domain.token.LoginUnavailableException;
 import de.shogundb.domain.token.TokenNotFoundException;
 import de.shogundb.domain.user.UserNotFoundException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import javax.validation.ConstraintViolationException;
+
 @RestControllerAdvice
 public class ControllerAdviceConfig extends ResponseEntityExceptionHandler {
     @ExceptionHandler(ChampionshipNotFoundException.class)
@@ -30,6 +37,21 @@ public class ControllerAdviceConfig extends ResponseEntityExceptionHandler {
         return ResponseEntity.notFound().build();
     }
 
+    @ExceptionHandler(ConditionTimeoutException.class)
+    public ResponseEntity<?> handleConditionTimeoutException(ConditionTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    @ExceptionHandler(ConditionTooExpensiveException.class)
+    public ResponseEntity<?> handleConditionTooExpensiveException(ConditionTooExpensiveException e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<?> handleConstraintViolationException(ConstraintViolationException e) {
+        return ResponseEntity.badRequest().build();
+    }
+
     @ExceptionHandler(ContributionClassNotFoundException.class)
     public ResponseEntity<?> handleContributionClassNotFoundException(ContributionClassNotFoundException e) {
         return ResponseEntity.notFound().build();
@@ -60,6 +82,16 @@ public class ControllerAdviceConfig extends ResponseEntityExceptionHandler {
         return ResponseEntity.notFound().build();
     }
 
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<?> handleLoginThrottledException(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+    }
+
+    @ExceptionHandler(LoginUnavailableException.class)
+    public ResponseEntity<?> handleLoginUnavailableException(LoginUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
     @ExceptionHandler(MemberNotFoundException.class)
     public ResponseEntity<?> handleMemberNotFoundException(MemberNotFoundException e) {
         return ResponseEntity.notFound().build();
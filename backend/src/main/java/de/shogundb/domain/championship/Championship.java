@@ -1,6 +1,7 @@
 package de.shogundb.domain.championship;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import lombok.*;
 
@@ -17,6 +18,7 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
 public class Championship extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
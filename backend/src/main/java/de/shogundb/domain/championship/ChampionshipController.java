@@ -1,5 +1,6 @@
 package de.shogundb.domain.championship;
 
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -11,17 +12,25 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/championship")
 public class ChampionshipController {
+    private final EligibilityService eligibilityService;
     private final MemberRepository memberRepository;
     private final ChampionshipRepository championshipRepository;
     private final ChampionshipMemberRepository championshipMemberRepository;
 
     @Autowired
-    public ChampionshipController(MemberRepository memberRepository, ChampionshipRepository championshipRepository, ChampionshipMemberRepository championshipMemberRepository) {
+    public ChampionshipController(
+            EligibilityService eligibilityService,
+            MemberRepository memberRepository,
+            ChampionshipRepository championshipRepository,
+            ChampionshipMemberRepository championshipMemberRepository) {
+        this.eligibilityService = eligibilityService;
         this.memberRepository = memberRepository;
         this.championshipRepository = championshipRepository;
         this.championshipMemberRepository = championshipMemberRepository;
@@ -61,6 +70,9 @@ public class ChampionshipController {
         }
 
         this.championshipRepository.save(newChampionship);
+        eligibilityService.markDirty(championshipMembers.stream()
+                .map(championshipMember -> championshipMember.getMember().getId())
+                .collect(Collectors.toSet()));
 
         URI uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
         return ResponseEntity.created(uri).body(this.championshipRepository
@@ -77,6 +89,11 @@ public class ChampionshipController {
         oldChampionship.setName(championship.getName());
         oldChampionship.setDate(championship.getDate());
 
+        // the old and the new members of the championship have to be checked for changed eligibilities
+        var changedMemberIds = new HashSet<Long>();
+        oldChampionship.getMembers().forEach(member -> changedMemberIds.add(member.getMember().getId()));
+        championship.getMembers().forEach(member -> changedMemberIds.add(member.getMemberId()));
+
         // detach all old members
         List<ChampionshipMember> members = oldChampionship.getMembers();
         for (int i = 0; i < members.size(); i++) {
@@ -104,6 +121,7 @@ public class ChampionshipController {
         }
 
         oldChampionship = this.championshipRepository.save(oldChampionship);
+        eligibilityService.markDirty(changedMemberIds);
 
         URI uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
         return ResponseEntity.created(uri).body(oldChampionship);
@@ -114,6 +132,11 @@ public class ChampionshipController {
         Championship championship = this.championshipRepository.findById(id)
                 .orElseThrow(() -> new ChampionshipNotFoundException(id));
 
+        // the members of the championship have to be checked for changed eligibilities
+        var changedMemberIds = championship.getMembers().stream()
+                .map(championshipMember -> championshipMember.getMember().getId())
+                .collect(Collectors.toSet());
+
         List<ChampionshipMember> members = championship.getMembers();
         for (int i = 0; i < members.size(); i++) {
             ChampionshipMember championshipMember = members.get(i);
@@ -123,6 +146,7 @@ public class ChampionshipController {
         }
 
         this.championshipRepository.delete(championship);
+        eligibilityService.markDirty(changedMemberIds);
 
         return ResponseEntity.noContent().build();
     }
@@ -1,6 +1,7 @@
 package de.shogundb.domain.championship;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.member.Member;
 import lombok.*;
 
@@ -14,6 +15,7 @@ import javax.validation.constraints.Size;
 @NoArgsConstructor
 @Builder
 @EqualsAndHashCode
+@EntityListeners(ConditionCacheInvalidator.class)
 public class ChampionshipMember {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
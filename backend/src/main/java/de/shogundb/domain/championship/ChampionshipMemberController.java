@@ -1,5 +1,6 @@
 package de.shogundb.domain.championship;
 
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -16,12 +17,18 @@ import java.util.List;
 @RestController
 @RequestMapping(value = "/championship/member")
 public class ChampionshipMemberController {
+    private final EligibilityService eligibilityService;
     private final MemberRepository memberRepository;
     private final ChampionshipRepository championshipRepository;
     private final ChampionshipMemberRepository championshipMemberRepository;
 
     @Autowired
-    public ChampionshipMemberController(MemberRepository memberRepository, ChampionshipRepository championshipRepository, ChampionshipMemberRepository championshipMemberRepository) {
+    public ChampionshipMemberController(
+            EligibilityService eligibilityService,
+            MemberRepository memberRepository,
+            ChampionshipRepository championshipRepository,
+            ChampionshipMemberRepository championshipMemberRepository) {
+        this.eligibilityService = eligibilityService;
         this.memberRepository = memberRepository;
         this.championshipRepository = championshipRepository;
         this.championshipMemberRepository = championshipMemberRepository;
@@ -73,6 +80,7 @@ public class ChampionshipMemberController {
         member.getChampionships().add(championshipMember);
         championship.getMembers().add(championshipMember);
         championshipMember = this.championshipMemberRepository.save(championshipMember);
+        eligibilityService.markDirty(List.of(member.getId()));
 
         URI uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
         return ResponseEntity.created(uri).body(championshipMember);
@@ -88,6 +96,9 @@ public class ChampionshipMemberController {
 
         championshipMember = this.championshipMemberRepository.save(championshipMember);
 
+        // the rank is part of the championship conditions
+        eligibilityService.markDirty(List.of(championshipMember.getMember().getId()));
+
         URI uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
         return ResponseEntity.created(uri).body(championshipMember);
     }
@@ -102,6 +113,7 @@ public class ChampionshipMemberController {
 
         this.championshipMemberRepository.save(championshipMember);
         this.championshipMemberRepository.delete(championshipMember);
+        eligibilityService.markDirty(List.of(championshipMember.getMember().getId()));
 
         return ResponseEntity.noContent().build();
     }
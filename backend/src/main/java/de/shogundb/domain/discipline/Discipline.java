@@ -1,6 +1,7 @@
 package de.shogundb.domain.discipline;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import de.shogundb.domain.graduation.Graduation;
 import de.shogundb.domain.member.Member;
@@ -18,6 +19,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
 public class Discipline extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
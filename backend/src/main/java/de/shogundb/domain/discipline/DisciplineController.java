@@ -1,6 +1,9 @@
 package de.shogundb.domain.discipline;
 
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.graduation.GraduationRepository;
+import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,19 +12,29 @@ import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBui
 
 import javax.validation.Valid;
 import java.net.URI;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/discipline")
 public class DisciplineController {
+    private final EligibilityService eligibilityService;
     private final GraduationRepository graduationRepository;
     private final DisciplineRepository disciplineRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
-    public DisciplineController(GraduationRepository graduationRepository, DisciplineRepository disciplineRepository, MemberRepository memberRepository) {
+    public DisciplineController(
+            EligibilityService eligibilityService,
+            GraduationRepository graduationRepository,
+            DisciplineRepository disciplineRepository,
+            MemberRepository memberRepository,
+            MembershipIndex membershipIndex) {
+        this.eligibilityService = eligibilityService;
         this.graduationRepository = graduationRepository;
         this.disciplineRepository = disciplineRepository;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     @GetMapping
@@ -57,6 +70,11 @@ public class DisciplineController {
         return this.disciplineRepository.findById(id)
                 .map(
                         existing -> {
+                            // the members of the discipline have to be checked for changed eligibilities
+                            var changedMemberIds = existing.getMembers().stream()
+                                    .map(Member::getId)
+                                    .collect(Collectors.toSet());
+
                             // detach discipline from members
                             existing.getMembers().forEach(
                                     members -> {
@@ -64,6 +82,8 @@ public class DisciplineController {
                                         this.memberRepository.save(members);
                                     });
                             this.disciplineRepository.delete(existing);
+                            eligibilityService.markDirty(changedMemberIds);
+                            membershipIndex.removeDiscipline(id);
                             return ResponseEntity.noContent().build();
                         }
                 )
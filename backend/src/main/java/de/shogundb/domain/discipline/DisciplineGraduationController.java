@@ -1,34 +1,44 @@
 package de.shogundb.domain.discipline;
 
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.graduation.Graduation;
 import de.shogundb.domain.graduation.GraduationMemberRepository;
 import de.shogundb.domain.graduation.GraduationNotFoundException;
 import de.shogundb.domain.graduation.GraduationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/discipline/graduation")
 public class DisciplineGraduationController {
 
+    private final EligibilityService eligibilityService;
     private final GraduationMemberRepository graduationMemberRepository;
     private final GraduationRepository graduationRepository;
     private final DisciplineRepository disciplineRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
     public DisciplineGraduationController(
+            EligibilityService eligibilityService,
             GraduationMemberRepository graduationMemberRepository,
             GraduationRepository graduationRepository,
-            DisciplineRepository disciplineRepository) {
+            DisciplineRepository disciplineRepository,
+            MembershipIndex membershipIndex) {
+        this.eligibilityService = eligibilityService;
         this.graduationMemberRepository = graduationMemberRepository;
         this.graduationRepository = graduationRepository;
         this.disciplineRepository = disciplineRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     /**
@@ -55,6 +65,7 @@ public class DisciplineGraduationController {
      * @throws DisciplineNotFoundException thrown, if no discipline with the given id exists
      */
     @PostMapping(value = "/{disciplineId}")
+    @Transactional
     public ResponseEntity<List<Graduation>> store(
             @RequestBody @Valid Graduation graduation,
             @PathVariable Long disciplineId) throws DisciplineNotFoundException {
@@ -67,6 +78,10 @@ public class DisciplineGraduationController {
                     existing.getGraduations().add(graduation);
                     Discipline discipline = this.disciplineRepository.save(existing);
 
+                    // the saved graduation is the last one of the discipline
+                    var graduations = discipline.getGraduations();
+                    eligibilityService.recalculate(graduations.get(graduations.size() - 1));
+
                     URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
                             .buildAndExpand(discipline.getId()).toUri();
 
@@ -74,6 +89,34 @@ public class DisciplineGraduationController {
                 }).orElseThrow(() -> new DisciplineNotFoundException(disciplineId));
     }
 
+    /**
+     * Updates the graduation with the given id and recalculates its eligibilities with the new conditions.
+     *
+     * @param graduationUpdateDTO a data transfer object with all necessary information
+     * @return a HTTP 201 CREATED if the graduation was updated successfully
+     * @throws GraduationNotFoundException thrown, if a graduation with the given id does not exists
+     */
+    @PutMapping
+    @Transactional
+    public ResponseEntity<Graduation> update(@RequestBody @Valid GraduationUpdateDTO graduationUpdateDTO)
+            throws GraduationNotFoundException {
+        var graduation = graduationRepository.findById(graduationUpdateDTO.getId())
+                .orElseThrow(() -> new GraduationNotFoundException(graduationUpdateDTO.getId()));
+
+        graduation.setName(graduationUpdateDTO.getName());
+        graduation.setColor(graduationUpdateDTO.getColor());
+        graduation.setExamConditions(graduationUpdateDTO.getExamConditions());
+        graduation.setHighlightConditions(graduationUpdateDTO.getHighlightConditions());
+
+        graduation = graduationRepository.save(graduation);
+        eligibilityService.recalculate(graduation);
+
+        URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
+                .buildAndExpand(graduation.getId()).toUri();
+
+        return ResponseEntity.created(uri).body(graduation);
+    }
+
     /**
      * Removes the graduation with the given id.
      *
@@ -82,9 +125,15 @@ public class DisciplineGraduationController {
      * @throws GraduationNotFoundException thrown, if a graduation with the given id does not exists
      */
     @DeleteMapping(value = "/{id}")
+    @Transactional
     public ResponseEntity<List<Graduation>> delete(@PathVariable Long id) throws GraduationNotFoundException {
         var graduation = graduationRepository.findById(id).orElseThrow(() -> new GraduationNotFoundException(id));
 
+        // the members, who obtained the graduation, have to be checked for changed eligibilities
+        var changedMemberIds = graduation.getGraduationMembers().stream()
+                .map(graduationMember -> graduationMember.getMember().getId())
+                .collect(Collectors.toSet());
+
         // unlink from discipline
         graduation.getDiscipline().getGraduations().remove(graduation);
         graduation.setDiscipline(null);
@@ -99,8 +148,11 @@ public class DisciplineGraduationController {
         }
         graduation.getGraduationMembers().clear();
 
-        // remove the graduation from the database
+        // remove the graduation and its eligibilities from the database
+        eligibilityService.remove(graduation.getId());
         graduationRepository.delete(graduation);
+        eligibilityService.markDirty(changedMemberIds);
+        membershipIndex.removeGraduation(id);
 
         return ResponseEntity.noContent().build();
     }
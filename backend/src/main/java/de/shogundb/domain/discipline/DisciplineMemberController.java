@@ -1,5 +1,8 @@
 package de.shogundb.domain.discipline;
 
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -15,12 +18,20 @@ import java.util.List;
 @RequestMapping(value = "/discipline/member")
 public class DisciplineMemberController {
     private final DisciplineRepository disciplineRepository;
+    private final EligibilityService eligibilityService;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
-    public DisciplineMemberController(DisciplineRepository disciplineRepository, MemberRepository memberRepository) {
+    public DisciplineMemberController(
+            DisciplineRepository disciplineRepository,
+            EligibilityService eligibilityService,
+            MemberRepository memberRepository,
+            MembershipIndex membershipIndex) {
         this.disciplineRepository = disciplineRepository;
+        this.eligibilityService = eligibilityService;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     @GetMapping("/{disciplineId}")
@@ -40,6 +51,11 @@ public class DisciplineMemberController {
         member.getDisciplines().add(discipline);
 
         member = this.memberRepository.save(member);
+        eligibilityService.markDirty(List.of(memberId));
+        membershipIndex.addDisciplineMember(disciplineId, memberId);
+
+        // the join table is not covered by the entity listeners of the discipline
+        ConditionResultCache.invalidate();
 
         // TODO: test, if the path works
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
@@ -63,6 +79,13 @@ public class DisciplineMemberController {
         discipline.getMembers().remove(member);
         member.getDisciplines().remove(discipline);
 
-        return ResponseEntity.ok(this.disciplineRepository.save(discipline).getMembers());
+        discipline = this.disciplineRepository.save(discipline);
+        eligibilityService.markDirty(List.of(memberId));
+        membershipIndex.removeDisciplineMember(disciplineId, memberId);
+
+        // the join table is not covered by the entity listeners of the discipline
+        ConditionResultCache.invalidate();
+
+        return ResponseEntity.ok(discipline.getMembers());
     }
 }
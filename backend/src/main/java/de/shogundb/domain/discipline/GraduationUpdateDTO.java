@@ -0,0 +1,27 @@
+package de.shogundb.domain.discipline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+class GraduationUpdateDTO {
+    @NotNull
+    private Long id;
+
+    @NotBlank
+    private String name;
+
+    private String color;
+
+    private String examConditions;
+
+    private String highlightConditions;
+}
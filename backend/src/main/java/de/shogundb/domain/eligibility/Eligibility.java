@@ -0,0 +1,59 @@
+package de.shogundb.domain.eligibility;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * A materialized result of the conditions of a graduation: the member fulfills the exam (or highlight) conditions of
+ * the graduation. The rows are calculated in the background by the eligibility service.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "eligibility_graduation_index", columnList = "graduation_id, type"),
+        @Index(name = "eligibility_member_index", columnList = "member_id, type")})
+public class Eligibility {
+    /**
+     * The unique identifier of the eligibility.
+     * Will be automatically generated.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * The unique identifier of the graduation.
+     */
+    @NotNull
+    @Column(name = "graduation_id")
+    private Long graduationId;
+
+    /**
+     * The unique identifier of the member, who fulfills the conditions.
+     */
+    @NotNull
+    @Column(name = "member_id")
+    private Long memberId;
+
+    /**
+     * The conditions of the graduation the member fulfills (EXAM or HIGHLIGHT).
+     */
+    @NotNull
+    @Column(name = "type")
+    private EligibilityType type;
+
+    /**
+     * The date the conditions were evaluated for.
+     */
+    @NotNull
+    private LocalDate referenceDate;
+}
@@ -0,0 +1,136 @@
+package de.shogundb.domain.eligibility;
+
+import de.shogundb.domain.graduation.Graduation;
+import de.shogundb.domain.graduation.GraduationNotFoundException;
+import de.shogundb.domain.graduation.GraduationRepository;
+import de.shogundb.domain.member.Member;
+import de.shogundb.domain.member.MemberNotFoundException;
+import de.shogundb.domain.member.MemberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/eligibility")
+public class EligibilityController {
+    private final EligibilityRepository eligibilityRepository;
+    private final EligibilityService eligibilityService;
+    private final GraduationRepository graduationRepository;
+    private final MemberRepository memberRepository;
+
+    @Autowired
+    public EligibilityController(
+            EligibilityRepository eligibilityRepository,
+            EligibilityService eligibilityService,
+            GraduationRepository graduationRepository,
+            MemberRepository memberRepository) {
+        this.eligibilityRepository = eligibilityRepository;
+        this.eligibilityService = eligibilityService;
+        this.graduationRepository = graduationRepository;
+        this.memberRepository = memberRepository;
+    }
+
+    /**
+     * Get all members, who fulfill the conditions of the graduation with the given id.
+     *
+     * @param graduationId the unique identifier of the graduation
+     * @param type         the conditions of the graduation (EXAM or HIGHLIGHT)
+     * @return a HTTP 200 OK and a list of all eligible members
+     * @throws GraduationNotFoundException thrown, if the graduation does not exist
+     */
+    @GetMapping("/graduation/{graduationId}")
+    public ResponseEntity<Iterable<Member>> graduation(
+            @PathVariable Long graduationId,
+            @RequestParam(defaultValue = "EXAM") EligibilityType type) throws GraduationNotFoundException {
+        graduationRepository.findById(graduationId).orElseThrow(() -> new GraduationNotFoundException(graduationId));
+
+        var memberIds = eligibilityRepository.findByGraduationIdAndType(graduationId, type).stream()
+                .map(Eligibility::getMemberId)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(memberRepository.findAllById(memberIds));
+    }
+
+    /**
+     * Get all graduations, whose conditions the member with the given id fulfills.
+     *
+     * @param memberId the unique identifier of the member
+     * @param type     the conditions of the graduations (EXAM or HIGHLIGHT)
+     * @return a HTTP 200 OK and a list of all graduations the member is eligible for
+     * @throws MemberNotFoundException thrown, if the member does not exist
+     */
+    @GetMapping("/member/{memberId}")
+    public ResponseEntity<Iterable<Graduation>> member(
+            @PathVariable Long memberId,
+            @RequestParam(defaultValue = "EXAM") EligibilityType type) throws MemberNotFoundException {
+        memberRepository.findById(memberId).orElseThrow(() -> new MemberNotFoundException(memberId));
+
+        var graduationIds = eligibilityRepository.findByMemberIdAndType(memberId, type).stream()
+                .map(Eligibility::getGraduationId)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(graduationRepository.findAllById(graduationIds));
+    }
+
+    /**
+     * Forecasts for all members the first date (today or later), on which they fulfill the conditions of the
+     * graduation with the given id.
+     *
+     * @param graduationId the unique identifier of the graduation
+     * @param type         the conditions of the graduation (EXAM or HIGHLIGHT)
+     * @return a HTTP 200 OK and a list of all members, who will fulfill the conditions, ordered by the date
+     * @throws GraduationNotFoundException thrown, if the graduation does not exist
+     */
+    @GetMapping("/forecast/graduation/{graduationId}")
+    public ResponseEntity<List<EligibilityForecastDTO>> forecast(
+            @PathVariable Long graduationId,
+            @RequestParam(defaultValue = "EXAM") EligibilityType type) throws GraduationNotFoundException {
+        var graduation = graduationRepository.findById(graduationId)
+                .orElseThrow(() -> new GraduationNotFoundException(graduationId));
+
+        return ResponseEntity.ok(eligibilityService.forecast(graduation, type, null).stream()
+                .filter(forecast -> forecast.getDate() != null)
+                .sorted(Comparator.comparing(EligibilityForecastDTO::getDate))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Forecasts the first date (today or later), on which the member with the given id fulfills the conditions of the
+     * graduation with the given id.
+     *
+     * @param graduationId the unique identifier of the graduation
+     * @param memberId     the unique identifier of the member
+     * @param type         the conditions of the graduation (EXAM or HIGHLIGHT)
+     * @return a HTTP 200 OK and the forecast (the date is null, if the member will never fulfill the conditions)
+     * @throws GraduationNotFoundException thrown, if the graduation does not exist
+     * @throws MemberNotFoundException     thrown, if the member does not exist
+     */
+    @GetMapping("/forecast/graduation/{graduationId}/member/{memberId}")
+    public ResponseEntity<EligibilityForecastDTO> forecast(
+            @PathVariable Long graduationId,
+            @PathVariable Long memberId,
+            @RequestParam(defaultValue = "EXAM") EligibilityType type)
+            throws GraduationNotFoundException, MemberNotFoundException {
+        var graduation = graduationRepository.findById(graduationId)
+                .orElseThrow(() -> new GraduationNotFoundException(graduationId));
+        memberRepository.findById(memberId).orElseThrow(() -> new MemberNotFoundException(memberId));
+
+        return ResponseEntity.ok(eligibilityService.forecast(graduation, type, List.of(memberId)).get(0));
+    }
+
+    /**
+     * Recalculates all eligibilities immediately (e.g. after the conditions of a graduation were changed).
+     *
+     * @return a HTTP 204 NO CONTENT if the eligibilities were recalculated successfully
+     */
+    @PostMapping
+    public ResponseEntity<?> recalculate() {
+        eligibilityService.recalculate();
+
+        return ResponseEntity.noContent().build();
+    }
+}
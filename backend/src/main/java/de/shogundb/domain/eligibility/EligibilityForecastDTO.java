@@ -0,0 +1,19 @@
+package de.shogundb.domain.eligibility;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EligibilityForecastDTO {
+    private Long memberId;
+
+    /**
+     * The first date the member fulfills the conditions or null, if the member will never fulfill them with the
+     * current data (e.g. a needed exam is missing).
+     */
+    private LocalDate date;
+}
@@ -0,0 +1,23 @@
+package de.shogundb.domain.eligibility;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EligibilityRepository extends JpaRepository<Eligibility, Long> {
+    List<Eligibility> findByGraduationIdAndType(Long graduationId, EligibilityType type);
+
+    List<Eligibility> findByMemberIdAndType(Long memberId, EligibilityType type);
+
+    @Modifying
+    @Query("DELETE FROM Eligibility e WHERE e.memberId IN :memberIds")
+    void deleteByMemberIds(@Param("memberIds") Collection<Long> memberIds);
+
+    @Modifying
+    @Query("DELETE FROM Eligibility e WHERE e.graduationId = :graduationId")
+    void deleteByGraduationId(@Param("graduationId") Long graduationId);
+}
@@ -0,0 +1,296 @@
+package de.shogundb.domain.eligibility;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.shogundb.conditions.ConditionCodec;
+import de.shogundb.conditions.MainCondition;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.statements.Condition;
+import de.shogundb.domain.graduation.Graduation;
+import de.shogundb.domain.graduation.GraduationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the stored conditions of all graduations in the background and materializes the results in the
+ * eligibility table, so the exam planner can read them with a single indexed lookup.
+ * <p>
+ * Changes of single members (e.g. a new graduation) are collected in a dirty set and recalculated together in short
+ * intervals, so only the affected members are evaluated again.
+ */
+@Service
+public class EligibilityService {
+    private final EligibilityRepository eligibilityRepository;
+    private final GraduationRepository graduationRepository;
+    private final ObjectMapper objectMapper;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * The proxy of this service, so the transactional methods can be called from within the service.
+     */
+    private final EligibilityService self;
+
+    /**
+     * The unique identifiers of all members, whose eligibilities have to be recalculated.
+     */
+    private final Set<Long> dirtyMemberIds = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public EligibilityService(
+            EligibilityRepository eligibilityRepository,
+            GraduationRepository graduationRepository,
+            ObjectMapper objectMapper,
+            @Lazy EligibilityService self) {
+        this.eligibilityRepository = eligibilityRepository;
+        this.graduationRepository = graduationRepository;
+        this.objectMapper = objectMapper;
+        this.self = self;
+    }
+
+    /**
+     * Evaluates the exam and highlight conditions of all graduations for all members and replaces the content of the
+     * eligibility table. Runs at startup and every night (the age and period conditions depend on the current date).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shogundb.eligibility.cron:0 0 3 * * *}")
+    @Transactional
+    public void recalculate() {
+        // load all members once for all graduations
+        var snapshot = MemberSnapshot.load(entityManager, LocalDate.now());
+
+        var eligibilities = evaluate(snapshot);
+
+        eligibilityRepository.deleteAllInBatch();
+        eligibilityRepository.saveAll(eligibilities);
+
+        logger.info("Calculated {} eligibilities", eligibilities.size());
+    }
+
+    /**
+     * Marks the members with the given ids as changed. Their eligibilities are recalculated with the next run of
+     * {@link #recalculateDirty()}. If a transaction is active, the members are marked after its commit, so the
+     * recalculation sees the changed data.
+     *
+     * @param memberIds the unique identifiers of the changed members
+     */
+    public void markDirty(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        var ids = new ArrayList<Long>(memberIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    dirtyMemberIds.addAll(ids);
+                }
+            });
+        } else {
+            dirtyMemberIds.addAll(ids);
+        }
+    }
+
+    /**
+     * Recalculates the eligibilities of all members, which were marked as changed since the last run. Multiple
+     * changes of the same member are coalesced to one recalculation. The recalculation is committed in its own
+     * transaction, so the members are marked again, if it fails (including the commit).
+     */
+    @Scheduled(fixedDelayString = "${shogundb.eligibility.dirty-delay:5000}")
+    public void recalculateDirty() {
+        if (dirtyMemberIds.isEmpty()) {
+            return;
+        }
+
+        // take all currently dirty members (members marked in the meantime stay in the set for the next run)
+        var memberIds = new HashSet<Long>(dirtyMemberIds);
+        dirtyMemberIds.removeAll(memberIds);
+
+        try {
+            self.recalculate(memberIds);
+        } catch (RuntimeException e) {
+            // try again with the next run
+            dirtyMemberIds.addAll(memberIds);
+            throw e;
+        }
+    }
+
+    /**
+     * Evaluates the exam and highlight conditions of all graduations for the given members and replaces their
+     * eligibilities.
+     *
+     * @param memberIds the unique identifiers of the members to recalculate
+     */
+    @Transactional
+    public void recalculate(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        var snapshot = MemberSnapshot.load(entityManager, LocalDate.now(), memberIds);
+
+        var eligibilities = evaluate(snapshot);
+
+        eligibilityRepository.deleteByMemberIds(memberIds);
+        eligibilityRepository.saveAll(eligibilities);
+
+        logger.debug("Recalculated the eligibilities of {} members", memberIds.size());
+    }
+
+    /**
+     * Evaluates the exam and highlight conditions of the given graduation for all members and replaces its
+     * eligibilities. Called within the transaction, which stores the graduation, so the eligibilities never belong to
+     * outdated conditions.
+     *
+     * @param graduation the created or updated graduation
+     */
+    @Transactional
+    public void recalculate(Graduation graduation) {
+        var snapshot = MemberSnapshot.load(entityManager, LocalDate.now());
+
+        var eligibilities = new ArrayList<Eligibility>();
+        eligibilities.addAll(evaluate(graduation, EligibilityType.EXAM, snapshot));
+        eligibilities.addAll(evaluate(graduation, EligibilityType.HIGHLIGHT, snapshot));
+
+        eligibilityRepository.deleteByGraduationId(graduation.getId());
+        eligibilityRepository.saveAll(eligibilities);
+
+        logger.debug("Recalculated {} eligibilities of graduation {}", eligibilities.size(), graduation.getId());
+    }
+
+    /**
+     * Removes all eligibilities of the graduation with the given id (e.g. before the graduation is deleted).
+     *
+     * @param graduationId the unique identifier of the graduation
+     */
+    @Transactional
+    public void remove(Long graduationId) {
+        eligibilityRepository.deleteByGraduationId(graduationId);
+    }
+
+    /**
+     * Forecasts the first date (today or later), on which the given members fulfill the conditions of the graduation.
+     *
+     * @param graduation the graduation
+     * @param type       the type of the conditions (EXAM or HIGHLIGHT)
+     * @param memberIds  the unique identifiers of the members or null for all members
+     * @return a forecast for every member (the date is null, if the member will never fulfill the conditions)
+     */
+    @Transactional(readOnly = true)
+    public List<EligibilityForecastDTO> forecast(
+            Graduation graduation,
+            EligibilityType type,
+            Collection<Long> memberIds) {
+        var snapshot = MemberSnapshot.load(entityManager, LocalDate.now(), memberIds);
+        var condition = getCondition(graduation, type);
+
+        var forecasts = new ArrayList<EligibilityForecastDTO>();
+        if (condition.isEmpty()) {
+            // without conditions, no member is eligible
+            for (int row = 0; row < snapshot.size(); row++) {
+                forecasts.add(new EligibilityForecastDTO(snapshot.getMemberId(row), null));
+            }
+            return forecasts;
+        }
+
+        var dates = new MainCondition(condition.get()).forecast(snapshot);
+        for (int row = 0; row < snapshot.size(); row++) {
+            var date = dates[row] != MemberSnapshot.NO_DATE ? LocalDate.ofEpochDay(dates[row]) : null;
+            forecasts.add(new EligibilityForecastDTO(snapshot.getMemberId(row), date));
+        }
+        return forecasts;
+    }
+
+    /**
+     * Evaluates the exam and highlight conditions of all graduations for all members of the snapshot.
+     *
+     * @param snapshot a snapshot of the members
+     * @return a list of eligibilities for all members matching the conditions
+     */
+    private List<Eligibility> evaluate(MemberSnapshot snapshot) {
+        var eligibilities = new ArrayList<Eligibility>();
+        for (var graduation : graduationRepository.findAll()) {
+            eligibilities.addAll(evaluate(graduation, EligibilityType.EXAM, snapshot));
+            eligibilities.addAll(evaluate(graduation, EligibilityType.HIGHLIGHT, snapshot));
+        }
+
+        return eligibilities;
+    }
+
+    /**
+     * Evaluates the conditions of the given type of the graduation.
+     *
+     * @param graduation the graduation
+     * @param type       the type of the conditions (EXAM or HIGHLIGHT)
+     * @param snapshot   a snapshot of all members
+     * @return a list of eligibilities for all members matching the conditions
+     */
+    private List<Eligibility> evaluate(Graduation graduation, EligibilityType type, MemberSnapshot snapshot) {
+        var eligibilities = new ArrayList<Eligibility>();
+
+        getCondition(graduation, type).ifPresent(condition -> {
+            for (var memberId : new MainCondition(condition).getMemberIds(snapshot)) {
+                eligibilities.add(Eligibility.builder()
+                        .graduationId(graduation.getId())
+                        .memberId(memberId)
+                        .type(type)
+                        .referenceDate(snapshot.getReferenceDate())
+                        .build());
+            }
+        });
+
+        return eligibilities;
+    }
+
+    /**
+     * Parses the stored conditions of the given type of the graduation.
+     *
+     * @param graduation the graduation
+     * @param type       the type of the conditions (EXAM or HIGHLIGHT)
+     * @return the parsed condition or an empty optional, if no (valid) condition is stored
+     */
+    private Optional<Condition> getCondition(Graduation graduation, EligibilityType type) {
+        var conditions = type == EligibilityType.EXAM
+                ? graduation.getExamConditions()
+                : graduation.getHighlightConditions();
+
+        if (conditions == null || conditions.isBlank()) {
+            return Optional.empty();
+        }
+
+        // the compact form is decoded without parsing any json
+        if (ConditionCodec.isEncoded(conditions)) {
+            try {
+                return Optional.of(ConditionCodec.decode(conditions));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid {} conditions of graduation {}", type, graduation.getId());
+                return Optional.empty();
+            }
+        }
+
+        try {
+            return Optional.ofNullable(objectMapper.readValue(conditions, Condition.class));
+        } catch (IOException e) {
+            logger.warn("Invalid {} conditions of graduation {}", type, graduation.getId());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package de.shogundb.domain.eligibility;
+
+/**
+ * The conditions of a graduation an eligibility was calculated for.
+ */
+public enum EligibilityType {
+    /**
+     * The member fulfills the conditions to be admitted to the exam (Graduation.examConditions).
+     */
+    EXAM,
+
+    /**
+     * The member fulfills the conditions to be highlighted (Graduation.highlightConditions).
+     */
+    HIGHLIGHT
+}
@@ -1,6 +1,7 @@
 package de.shogundb.domain.event;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import de.shogundb.domain.member.Member;
 import lombok.*;
@@ -18,6 +19,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
 public class Event extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -1,5 +1,6 @@
 package de.shogundb.domain.event;
 
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -11,16 +12,23 @@ import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBui
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/event")
 public class EventController {
+    private final EligibilityService eligibilityService;
     private final EventRepository eventRepository;
     private final MemberRepository memberRepository;
 
     @Autowired
-    public EventController(EventRepository eventRepository, MemberRepository memberRepository) {
+    public EventController(
+            EligibilityService eligibilityService,
+            EventRepository eventRepository,
+            MemberRepository memberRepository) {
+        this.eligibilityService = eligibilityService;
         this.eventRepository = eventRepository;
         this.memberRepository = memberRepository;
     }
@@ -53,6 +61,7 @@ public class EventController {
         }
 
         newEvent = this.eventRepository.save(newEvent);
+        eligibilityService.markDirty(members.stream().map(Member::getId).collect(Collectors.toSet()));
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
                 .buildAndExpand(newEvent.getId()).toUri();
@@ -71,6 +80,11 @@ public class EventController {
             members.add(this.memberRepository.findById(id).orElseThrow(() -> new MemberNotFoundException(id)));
         }
 
+        // the old and the new members of the event have to be checked for changed eligibilities
+        var changedMemberIds = new HashSet<Long>();
+        existingEvent.getMembers().forEach(member -> changedMemberIds.add(member.getId()));
+        members.forEach(member -> changedMemberIds.add(member.getId()));
+
         // detach the members from the events
         for (Member member : existingEvent.getMembers()) {
             member.getEvents().remove(existingEvent);
@@ -86,6 +100,7 @@ public class EventController {
         existingEvent.setMembers(members);
 
         existingEvent = this.eventRepository.save(existingEvent);
+        eligibilityService.markDirty(changedMemberIds);
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
                 .buildAndExpand(existingEvent.getId()).toUri();
@@ -97,12 +112,18 @@ public class EventController {
     public ResponseEntity<?> delete(@PathVariable Long id) throws EventNotFoundException {
         return this.eventRepository.findById(id).map(
                 existing -> {
+                    // the members of the event have to be checked for changed eligibilities
+                    var changedMemberIds = existing.getMembers().stream()
+                            .map(Member::getId)
+                            .collect(Collectors.toSet());
+
                     // remove the event from all its members
                     existing.getMembers().forEach(existingMember -> existingMember.getEvents().remove(existing));
                     this.eventRepository.save(existing);
 
                     // delete event
                     this.eventRepository.delete(existing);
+                    eligibilityService.markDirty(changedMemberIds);
                     return ResponseEntity.noContent().build();
                 }).orElseThrow(() -> new EventNotFoundException(id));
     }
@@ -1,5 +1,7 @@
 package de.shogundb.domain.event;
 
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -14,12 +16,16 @@ import java.util.List;
 @RestController
 @RequestMapping(value = "/event/member")
 public class EventMemberController {
-
+    private final EligibilityService eligibilityService;
     private final EventRepository eventRepository;
     private final MemberRepository memberRepository;
 
     @Autowired
-    public EventMemberController(EventRepository eventRepository, MemberRepository memberRepository) {
+    public EventMemberController(
+            EligibilityService eligibilityService,
+            EventRepository eventRepository,
+            MemberRepository memberRepository) {
+        this.eligibilityService = eligibilityService;
         this.eventRepository = eventRepository;
         this.memberRepository = memberRepository;
     }
@@ -48,6 +54,10 @@ public class EventMemberController {
         event.getMembers().add(member);
 
         this.memberRepository.save(member);
+        eligibilityService.markDirty(List.of(memberId));
+
+        // the join table is not covered by the entity listeners of the event
+        ConditionResultCache.invalidate();
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/event/member/")
                 .buildAndExpand(event.getId()).toUri();
@@ -71,6 +81,12 @@ public class EventMemberController {
         member.getEvents().remove(event);
         event.getMembers().remove(member);
 
-        return ResponseEntity.ok(this.eventRepository.save(event).getMembers());
+        event = this.eventRepository.save(event);
+        eligibilityService.markDirty(List.of(memberId));
+
+        // the join table is not covered by the entity listeners of the event
+        ConditionResultCache.invalidate();
+
+        return ResponseEntity.ok(event.getMembers());
     }
 }
@@ -1,5 +1,6 @@
 package de.shogundb.domain.exam;
 
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import de.shogundb.domain.graduation.GraduationMember;
 import de.shogundb.domain.person.Person;
@@ -17,6 +18,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
 public class Exam extends BaseEntity {
     /**
      * The unique identifier of the seminar.
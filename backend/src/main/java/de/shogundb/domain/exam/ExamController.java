@@ -1,5 +1,7 @@
 package de.shogundb.domain.exam;
 
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.graduation.GraduationMember;
 import de.shogundb.domain.graduation.GraduationMemberRepository;
 import de.shogundb.domain.graduation.GraduationNotFoundException;
@@ -17,27 +19,35 @@ import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBui
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/exam")
 public class ExamController {
+    private final EligibilityService eligibilityService;
     private final ExamRepository examRepository;
     private final GraduationRepository graduationRepository;
     private final GraduationMemberRepository graduationMemberRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
     private final PersonRepository personRepository;
 
     @Autowired
     public ExamController(
+            EligibilityService eligibilityService,
             ExamRepository examRepository,
             GraduationMemberRepository graduationMemberRepository,
             GraduationRepository graduationRepository,
             MemberRepository memberRepository,
+            MembershipIndex membershipIndex,
             PersonRepository personRepository) {
+        this.eligibilityService = eligibilityService;
         this.examRepository = examRepository;
         this.graduationRepository = graduationRepository;
         this.graduationMemberRepository = graduationMemberRepository;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
         this.personRepository = personRepository;
     }
 
@@ -99,7 +109,14 @@ public class ExamController {
             graduationMember.getGraduation().getGraduationMembers().add(graduationMember);
         });
 
-        return saveExam(newExam);
+        var response = saveExam(newExam);
+        eligibilityService.markDirty(newExam.getGraduationMembers().stream()
+                .map(graduationMember -> graduationMember.getMember().getId())
+                .collect(Collectors.toSet()));
+        newExam.getGraduationMembers().forEach(graduationMember -> membershipIndex.addGraduationMember(
+                graduationMember.getGraduation().getId(), graduationMember.getMember().getId()));
+
+        return response;
     }
 
     /**
@@ -160,6 +177,13 @@ public class ExamController {
                 add(newGraduationMember);
             }
         }};
+
+        // the old and the new members of the exam have to be checked for changed eligibilities
+        var changedMemberIds = new HashSet<Long>();
+        existingExam.getGraduationMembers().forEach(graduationMember ->
+                changedMemberIds.add(graduationMember.getMember().getId()));
+        graduationMembers.forEach(graduationMember -> changedMemberIds.add(graduationMember.getMember().getId()));
+
         removeGraduationMembers(existingExam);
 
         // add all new graduation member connections to the exam
@@ -169,7 +193,11 @@ public class ExamController {
         }
         existingExam.setGraduationMembers(graduationMembers);
 
-        return saveExam(existingExam);
+        var response = saveExam(existingExam);
+        eligibilityService.markDirty(changedMemberIds);
+        memberRepository.findAllById(changedMemberIds).forEach(membershipIndex::updateGraduations);
+
+        return response;
     }
 
     /**
@@ -187,10 +215,17 @@ public class ExamController {
         exam.getExaminers().forEach(examiner -> examiner.getExams().remove(exam));
         exam.getExaminers().clear();
 
+        // the members of the exam have to be checked for changed eligibilities
+        var changedMemberIds = exam.getGraduationMembers().stream()
+                .map(graduationMember -> graduationMember.getMember().getId())
+                .collect(Collectors.toSet());
+
         // remove all graduation member links
         removeGraduationMembers(exam);
 
         examRepository.delete(exam);
+        eligibilityService.markDirty(changedMemberIds);
+        memberRepository.findAllById(changedMemberIds).forEach(membershipIndex::updateGraduations);
 
         return ResponseEntity.noContent().build();
     }
@@ -1,6 +1,7 @@
 package de.shogundb.domain.graduation;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.exam.Exam;
 import de.shogundb.domain.member.Member;
 import lombok.AllArgsConstructor;
@@ -16,6 +17,7 @@ import javax.validation.constraints.NotNull;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@EntityListeners(ConditionCacheInvalidator.class)
 public class GraduationMember {
     /**
      * The unique identifier of the graduation member link.
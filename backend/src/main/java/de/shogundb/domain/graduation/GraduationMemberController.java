@@ -1,5 +1,7 @@
 package de.shogundb.domain.graduation;
 
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.exam.ExamNotFoundException;
 import de.shogundb.domain.exam.ExamRepository;
 import de.shogundb.domain.member.MemberNotFoundException;
@@ -10,27 +12,34 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 import static de.shogundb.domain.graduation.GraduationMember.removeGraduationMember;
 
 @RestController
 @RequestMapping("/graduationMember")
 public class GraduationMemberController {
+    private final EligibilityService eligibilityService;
     private final ExamRepository examRepository;
     private final GraduationMemberRepository graduationMemberRepository;
     private final GraduationRepository graduationRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
     public GraduationMemberController(
+            EligibilityService eligibilityService,
             ExamRepository examRepository,
             GraduationMemberRepository graduationMemberRepository,
             GraduationRepository graduationRepository,
-            MemberRepository memberRepository) {
+            MemberRepository memberRepository,
+            MembershipIndex membershipIndex) {
+        this.eligibilityService = eligibilityService;
         this.examRepository = examRepository;
         this.graduationMemberRepository = graduationMemberRepository;
         this.graduationRepository = graduationRepository;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     /**
@@ -81,6 +90,8 @@ public class GraduationMemberController {
         member.getGraduations().add(newGraduationMember);
 
         newGraduationMember = graduationMemberRepository.save(newGraduationMember);
+        eligibilityService.markDirty(List.of(member.getId()));
+        membershipIndex.addGraduationMember(graduation.getId(), member.getId());
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
                 .buildAndExpand(newGraduationMember.getId()).toUri();
@@ -101,6 +112,8 @@ public class GraduationMemberController {
                 .orElseThrow(() -> new GraduationMemberNotFoundException(id));
 
         removeGraduationMember(graduationMember, graduationMemberRepository);
+        eligibilityService.markDirty(List.of(graduationMember.getMember().getId()));
+        membershipIndex.updateGraduations(graduationMember.getMember());
 
         return ResponseEntity.noContent().build();
     }
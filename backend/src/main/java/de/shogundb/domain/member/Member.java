@@ -1,5 +1,6 @@
 package de.shogundb.domain.member;
 
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import de.shogundb.domain.championship.ChampionshipMember;
 import de.shogundb.domain.contributionClass.ContributionClass;
@@ -24,6 +25,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
+@Table(indexes = {
+        @Index(name = "member_date_of_birth_index", columnList = "date_of_birth"),
+        @Index(name = "member_entered_date_index", columnList = "entered_date")})
 public class Member extends BaseEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -65,6 +70,7 @@ public class Member extends BaseEntity {
     private String email;
 
     @NotNull
+    @Column(name = "date_of_birth")
     private LocalDate dateOfBirth;
 
     @NotNull
@@ -73,6 +79,7 @@ public class Member extends BaseEntity {
     private LocalDate budoPassDate;
 
     @NotNull
+    @Column(name = "entered_date")
     private LocalDate enteredDate;
 
     @Builder.Default
@@ -1,10 +1,13 @@
 package de.shogundb.domain.member;
 
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.MembershipIndex;
 import de.shogundb.domain.contributionClass.ContributionClassNotFoundException;
 import de.shogundb.domain.contributionClass.ContributionClassRepository;
 import de.shogundb.domain.discipline.Discipline;
 import de.shogundb.domain.discipline.DisciplineNotFoundException;
 import de.shogundb.domain.discipline.DisciplineRepository;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.event.Event;
 import de.shogundb.domain.event.EventNotFoundException;
 import de.shogundb.domain.event.EventRepository;
@@ -21,42 +24,52 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/member")
 public class MemberController {
     private final ContributionClassRepository contributionClassRepository;
     private final DisciplineRepository disciplineRepository;
+    private final EligibilityService eligibilityService;
     private final EventRepository eventRepository;
     private final GraduationMemberRepository graduationMemberRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
     private final SeminarRepository seminarRepository;
 
     @Autowired
     public MemberController(
             ContributionClassRepository contributionClassRepository,
             DisciplineRepository disciplineRepository,
+            EligibilityService eligibilityService,
             EventRepository eventRepository,
             GraduationMemberRepository graduationMemberRepository,
             MemberRepository memberRepository,
+            MembershipIndex membershipIndex,
             SeminarRepository seminarRepository) {
         this.contributionClassRepository = contributionClassRepository;
         this.disciplineRepository = disciplineRepository;
+        this.eligibilityService = eligibilityService;
         this.eventRepository = eventRepository;
         this.memberRepository = memberRepository;
         this.graduationMemberRepository = graduationMemberRepository;
+        this.membershipIndex = membershipIndex;
         this.seminarRepository = seminarRepository;
     }
 
     /**
-     * Get a list of all members in the database.
+     * Get a list of all members in the database. The members are fetched with their contribution class and disciplines
+     * by a single query, their other relations are only part of the member returned by show().
      *
      * @return a HTTP 200 OK and a list of all members
      */
     @GetMapping
-    public ResponseEntity<Iterable<Member>> index() {
-        return ResponseEntity.ok(this.memberRepository.findAll());
+    public ResponseEntity<List<MemberListDTO>> index() {
+        return ResponseEntity.ok(this.memberRepository.findAllForList().stream()
+                .map(MemberListDTO::of)
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -114,6 +127,10 @@ public class MemberController {
 
         // save the member to the database
         newMember = this.memberRepository.save(newMember);
+        eligibilityService.markDirty(List.of(newMember.getId()));
+        for (var discipline : disciplines) {
+            membershipIndex.addDisciplineMember(discipline.getId(), newMember.getId());
+        }
 
         var uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
                 .buildAndExpand(newMember.getId()).toUri();
@@ -221,6 +238,12 @@ public class MemberController {
 
         // update the member in the database
         existingMember = this.memberRepository.save(existingMember);
+        eligibilityService.markDirty(List.of(existingMember.getId()));
+        membershipIndex.updateDisciplines(existingMember);
+        membershipIndex.updateSeminars(existingMember);
+
+        // the seminars of the member are not covered by the entity listeners of the member
+        ConditionResultCache.invalidate();
 
         var uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
 
@@ -275,6 +298,8 @@ public class MemberController {
 
         member = this.memberRepository.save(member);
         this.memberRepository.delete(member);
+        eligibilityService.markDirty(List.of(id));
+        membershipIndex.removeMember(id);
 
         return ResponseEntity.noContent().
 
@@ -302,7 +327,9 @@ public class MemberController {
      * @return a HTTP 200 OK and a list of all members matching the given name
      */
     @GetMapping(value = "/byName/{name}")
-    public ResponseEntity<Collection<Member>> findMembersByName(@PathVariable String name) {
-        return ResponseEntity.ok(this.memberRepository.findByFullname(name));
+    public ResponseEntity<List<MemberListDTO>> findMembersByName(@PathVariable String name) {
+        return ResponseEntity.ok(this.memberRepository.findAllForListByFullname(name).stream()
+                .map(MemberListDTO::of)
+                .collect(Collectors.toList()));
     }
 }
@@ -0,0 +1,96 @@
+package de.shogundb.domain.member;
+
+import de.shogundb.domain.contributionClass.ContributionClass;
+import de.shogundb.domain.discipline.Discipline;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A read-only representation of a member for the member lists. It contains all fields and the disciplines of the
+ * member, but not the championships, events, graduations and seminars (see the member entity for the full member).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberListDTO {
+    private Long id;
+
+    private String forename;
+
+    private String surname;
+
+    private Gender gender;
+
+    private String street;
+
+    private String postcode;
+
+    private String city;
+
+    private String phoneNumber;
+
+    private String mobileNumber;
+
+    private String email;
+
+    private LocalDate dateOfBirth;
+
+    private Boolean hasBudoPass;
+
+    private LocalDate budoPassDate;
+
+    private LocalDate enteredDate;
+
+    private Boolean hasLeft;
+
+    private LocalDate leftDate;
+
+    private Boolean isPassive;
+
+    private ContributionClass contributionClass;
+
+    private String accountHolder;
+
+    private String notes;
+
+    private List<Discipline> disciplines;
+
+    /**
+     * Creates the list representation of the given member. The contribution class and the disciplines of the member
+     * should be fetched already (see MemberRepository.findAllForList()).
+     *
+     * @param member the member
+     * @return the list representation of the member
+     */
+    public static MemberListDTO of(Member member) {
+        return MemberListDTO.builder()
+                .id(member.getId())
+                .forename(member.getForename())
+                .surname(member.getSurname())
+                .gender(member.getGender())
+                .street(member.getStreet())
+                .postcode(member.getPostcode())
+                .city(member.getCity())
+                .phoneNumber(member.getPhoneNumber())
+                .mobileNumber(member.getMobileNumber())
+                .email(member.getEmail())
+                .dateOfBirth(member.getDateOfBirth())
+                .hasBudoPass(member.getHasBudoPass())
+                .budoPassDate(member.getBudoPassDate())
+                .enteredDate(member.getEnteredDate())
+                .hasLeft(member.getHasLeft())
+                .leftDate(member.getLeftDate())
+                .isPassive(member.getIsPassive())
+                .contributionClass(member.getContributionClass())
+                .accountHolder(member.getAccountHolder())
+                .notes(member.getNotes())
+                .disciplines(List.copyOf(member.getDisciplines()))
+                .build();
+    }
+}
@@ -1,13 +1,19 @@
 package de.shogundb.domain.member;
 
 import de.shogundb.domain.contributionClass.ContributionClass;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 public interface MemberRepository extends PagingAndSortingRepository<Member, Long> {
 
     Optional<Member> findById(Long id);
@@ -25,4 +31,40 @@ public interface MemberRepository extends PagingAndSortingRepository<Member, Lon
                     "LIKE concat('%', LOWER(:name), '%')",
             nativeQuery = true)
     List<Member> findByFullname(@Param("name") String name);
+
+    /**
+     * Returns all members with their contribution class and disciplines fetched by a single query. The members are
+     * read-only and their other relations are not loaded.
+     *
+     * @return all members ordered by their id
+     */
+    @EntityGraph(attributePaths = {"contributionClass", "disciplines"})
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("SELECT DISTINCT m FROM Member m ORDER BY m.id")
+    List<Member> findAllForList();
+
+    /**
+     * Returns all members, whose full name contains the given name, with their contribution class and disciplines
+     * fetched by a single query (like findAllForList()).
+     *
+     * @param name a part of the full name (case insensitive)
+     * @return all matching members ordered by their id
+     */
+    @EntityGraph(attributePaths = {"contributionClass", "disciplines"})
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("SELECT DISTINCT m FROM Member m WHERE LOWER(CONCAT(m.forename, ' ', m.surname)) "
+            + "LIKE CONCAT('%', LOWER(:name), '%') ORDER BY m.id")
+    List<Member> findAllForListByFullname(@Param("name") String name);
+
+    /**
+     * Returns the members with the given ids with their contribution class and disciplines fetched by a single query
+     * (like findAllForList()).
+     *
+     * @param ids the unique identifiers of the members (must not be empty)
+     * @return all matching members ordered by their id
+     */
+    @EntityGraph(attributePaths = {"contributionClass", "disciplines"})
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    @Query("SELECT DISTINCT m FROM Member m WHERE m.id IN (:ids) ORDER BY m.id")
+    List<Member> findAllForListByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,28 @@
+package de.shogundb.domain.member;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A lean representation of a member for large result lists. In contrast to the member entity, it has no relations,
+ * which have to be loaded lazily while serializing.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MemberSummaryDTO {
+    private Long id;
+
+    private String forename;
+
+    private String surname;
+
+    private LocalDate dateOfBirth;
+
+    private LocalDate enteredDate;
+}
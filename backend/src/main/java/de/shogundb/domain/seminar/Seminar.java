@@ -1,6 +1,7 @@
 package de.shogundb.domain.seminar;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.shogundb.conditions.ConditionCacheInvalidator;
 import de.shogundb.domain.BaseEntity;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.person.Person;
@@ -19,6 +20,7 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 @EqualsAndHashCode(callSuper = true)
+@EntityListeners(ConditionCacheInvalidator.class)
 public class Seminar extends BaseEntity {
     /**
      * ID of the new seminar.
@@ -1,5 +1,8 @@
 package de.shogundb.domain.seminar;
 
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -14,22 +17,30 @@ import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBui
 import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/seminar")
 public class SeminarController {
+    private final EligibilityService eligibilityService;
     private final SeminarRepository seminarRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
     private final PersonRepository personRepository;
 
     @Autowired
     public SeminarController(
+            EligibilityService eligibilityService,
             SeminarRepository seminarRepository,
             MemberRepository memberRepository,
+            MembershipIndex membershipIndex,
             PersonRepository personRepository) {
+        this.eligibilityService = eligibilityService;
         this.seminarRepository = seminarRepository;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
         this.personRepository = personRepository;
     }
 
@@ -94,6 +105,10 @@ public class SeminarController {
         }
 
         seminar = this.seminarRepository.save(seminar);
+        eligibilityService.markDirty(members.stream().map(Member::getId).collect(Collectors.toSet()));
+        for (Member member : members) {
+            membershipIndex.addSeminarMember(seminar.getSeminarType(), seminar.getDateTo().getYear(), member.getId());
+        }
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/seminar/")
                 .buildAndExpand(seminar.getId()).toUri();
@@ -131,6 +146,11 @@ public class SeminarController {
                     .orElseThrow(() -> new PersonNotFoundException(personId)));
         }
 
+        // the old and the new members of the seminar have to be checked for changed eligibilities
+        var changedMemberIds = new HashSet<Long>();
+        existingSeminar.getMembers().forEach(member -> changedMemberIds.add(member.getId()));
+        members.forEach(member -> changedMemberIds.add(member.getId()));
+
         // detach all members from the existing seminar
         existingSeminar.getMembers().forEach(member -> member.getSeminars().remove(existingSeminar));
         existingSeminar.getMembers().clear();
@@ -156,6 +176,11 @@ public class SeminarController {
 
         // save everything to the database
         Seminar updatedSeminar = seminarRepository.save(existingSeminar);
+        eligibilityService.markDirty(changedMemberIds);
+        memberRepository.findAllById(changedMemberIds).forEach(membershipIndex::updateSeminars);
+
+        // the join table is not covered by the entity listeners of the seminar
+        ConditionResultCache.invalidate();
 
         // generate uri to the updated seminar
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).path("/{id}")
@@ -168,6 +193,9 @@ public class SeminarController {
     public ResponseEntity<?> delete(@PathVariable Long id) throws SeminarNotFoundException {
         Seminar seminar = seminarRepository.findById(id).orElseThrow(() -> new SeminarNotFoundException(id));
 
+        // the members of the seminar have to be checked for changed eligibilities
+        var changedMemberIds = seminar.getMembers().stream().map(Member::getId).collect(Collectors.toSet());
+
         // remove the members from the seminar
         seminar.getMembers().forEach(member -> member.getSeminars().remove(seminar));
         seminar.getMembers().clear();
@@ -181,6 +209,8 @@ public class SeminarController {
 
         // remove the seminar
         seminarRepository.delete(seminar);
+        eligibilityService.markDirty(changedMemberIds);
+        memberRepository.findAllById(changedMemberIds).forEach(membershipIndex::updateSeminars);
 
         return ResponseEntity.noContent().build();
     }
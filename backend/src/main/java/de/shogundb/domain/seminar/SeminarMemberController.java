@@ -1,5 +1,8 @@
 package de.shogundb.domain.seminar;
 
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.domain.eligibility.EligibilityService;
 import de.shogundb.domain.member.Member;
 import de.shogundb.domain.member.MemberNotFoundException;
 import de.shogundb.domain.member.MemberRepository;
@@ -9,17 +12,26 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/seminar/member")
 public class SeminarMemberController {
+    private final EligibilityService eligibilityService;
     private final SeminarRepository seminarRepository;
     private final MemberRepository memberRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
-    public SeminarMemberController(SeminarRepository seminarRepository, MemberRepository memberRepository) {
+    public SeminarMemberController(
+            EligibilityService eligibilityService,
+            SeminarRepository seminarRepository,
+            MemberRepository memberRepository,
+            MembershipIndex membershipIndex) {
+        this.eligibilityService = eligibilityService;
         this.seminarRepository = seminarRepository;
         this.memberRepository = memberRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     /**
@@ -63,6 +75,13 @@ public class SeminarMemberController {
         member.getSeminars().add(seminar);
 
         seminar = seminarRepository.save(seminar);
+        eligibilityService.markDirty(List.of(memberId));
+        if (seminar.getDateTo() != null) {
+            membershipIndex.addSeminarMember(seminar.getSeminarType(), seminar.getDateTo().getYear(), memberId);
+        }
+
+        // the join table is not covered by the entity listeners of the seminar
+        ConditionResultCache.invalidate();
 
         URI uri = MvcUriComponentsBuilder.fromController(getClass()).buildAndExpand(seminar.getId()).toUri();
 
@@ -95,6 +114,11 @@ public class SeminarMemberController {
         member.getSeminars().remove(seminar);
 
         seminarRepository.save(seminar);
+        eligibilityService.markDirty(List.of(memberId));
+        membershipIndex.updateSeminars(member);
+
+        // the join table is not covered by the entity listeners of the seminar
+        ConditionResultCache.invalidate();
 
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,44 @@
+package de.shogundb.domain.token;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A valid token and the user it belongs to, as kept by the TokenCache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedToken {
+    /**
+     * The unique identifier of the token.
+     */
+    private Long id;
+
+    /**
+     * The unique identifier of the user the token belongs to.
+     */
+    private Long userId;
+
+    /**
+     * The name of the user the token belongs to.
+     */
+    private String username;
+
+    /**
+     * The date the token expires.
+     */
+    private Date expireDate;
+
+    /**
+     * Checks, if the token is already expired.
+     *
+     * @return true, if the expire date has passed
+     */
+    public boolean isExpired() {
+        return new Date().after(expireDate);
+    }
+}
@@ -0,0 +1,180 @@
+package de.shogundb.domain.token;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the failed logins per username and client address and per client address. After too many failed logins
+ * within the time window, all further logins of the username from the address or all logins from the address are
+ * rejected until the window has passed (without verifying the password at all). Failures from other addresses do not
+ * lock out the user.
+ * <p>
+ * Every login reserves an attempt before the password is verified, so concurrent logins cannot exceed the limits. The
+ * attempt is taken back, if the login succeeds or the password could not be verified.
+ * <p>
+ * The client address is read from the X-Forwarded-For header, if the request was sent by a trusted proxy.
+ */
+@Component
+public class LoginThrottle {
+    /**
+     * The maximum number of logins and addresses to remember (least recently used are removed first).
+     */
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Map<String, Failures> failures = Collections.synchronizedMap(
+            new LinkedHashMap<String, Failures>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Failures> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerAddress;
+    private final long window;
+    private final Set<String> trustedProxies;
+
+    @Autowired
+    public LoginThrottle(
+            @Value("${shogundb.login.max-failures-per-username:5}") int maxFailuresPerUsername,
+            @Value("${shogundb.login.max-failures-per-address:20}") int maxFailuresPerAddress,
+            @Value("${shogundb.login.window:300}") int window,
+            @Value("${shogundb.login.trusted-proxies:}") String[] trustedProxies) {
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.window = window * 1000L;
+        this.trustedProxies = Set.copyOf(Arrays.asList(trustedProxies));
+    }
+
+    /**
+     * Returns the address of the client, which sent the given request. The X-Forwarded-For header is followed from
+     * the nearest entry as long as the request was forwarded by a trusted proxy.
+     *
+     * @param request the servlet request of the login
+     * @return the address of the client
+     */
+    public String getClientAddress(HttpServletRequest request) {
+        var address = request.getRemoteAddr();
+        var forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null) {
+            return address;
+        }
+
+        var hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0 && trustedProxies.contains(address); i--) {
+            address = hops[i].trim();
+        }
+        return address;
+    }
+
+    /**
+     * Reserves a login of the given username from the given address. The attempt counts as failed, until it is taken
+     * back by succeeded() or cancelled().
+     *
+     * @param username the username of the login
+     * @param address  the address of the client
+     * @throws LoginThrottledException thrown, if the username or the address has too many failed logins
+     */
+    public void reserve(String username, String address) throws LoginThrottledException {
+        var now = System.currentTimeMillis();
+
+        // check and count both keys at once, so concurrent logins cannot pass the check together
+        synchronized (failures) {
+            if (count(loginKey(username, address), now) >= maxFailuresPerUsername
+                    || count(addressKey(address), now) >= maxFailuresPerAddress) {
+                throw new LoginThrottledException("Too many failed logins");
+            }
+
+            increment(loginKey(username, address), now);
+            increment(addressKey(address), now);
+        }
+    }
+
+    /**
+     * Records a successful login (the failures of the username from the address are reset and the reserved attempt of
+     * the address is taken back).
+     *
+     * @param username the username of the login
+     * @param address  the address of the client
+     */
+    public void succeeded(String username, String address) {
+        var now = System.currentTimeMillis();
+
+        synchronized (failures) {
+            failures.remove(loginKey(username, address));
+            decrement(addressKey(address), now);
+        }
+    }
+
+    /**
+     * Takes back a reserved login, whose password could not be verified.
+     *
+     * @param username the username of the login
+     * @param address  the address of the client
+     */
+    public void cancelled(String username, String address) {
+        var now = System.currentTimeMillis();
+
+        synchronized (failures) {
+            decrement(loginKey(username, address), now);
+            decrement(addressKey(address), now);
+        }
+    }
+
+    /**
+     * Removes all recorded failures.
+     */
+    public void clear() {
+        failures.clear();
+    }
+
+    private int count(String key, long now) {
+        var entry = failures.get(key);
+        return entry != null && entry.isCurrent(now, window) ? entry.count : 0;
+    }
+
+    private void increment(String key, long now) {
+        failures.compute(key, (k, entry) -> entry != null && entry.isCurrent(now, window)
+                ? new Failures(entry.count + 1, entry.start)
+                : new Failures(1, now));
+    }
+
+    private void decrement(String key, long now) {
+        failures.computeIfPresent(key, (k, entry) -> entry.isCurrent(now, window) && entry.count > 1
+                ? new Failures(entry.count - 1, entry.start)
+                : null);
+    }
+
+    private static String loginKey(String username, String address) {
+        return "login:" + address + ":" + username;
+    }
+
+    private static String addressKey(String address) {
+        return "address:" + address;
+    }
+
+    /**
+     * The number of failed logins since the start of the window (milliseconds since the epoch).
+     */
+    private static class Failures {
+        private final int count;
+        private final long start;
+
+        Failures(int count, long start) {
+            this.count = count;
+            this.start = start;
+        }
+
+        boolean isCurrent(long now, long window) {
+            return now - start < window;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.shogundb.domain.token;
+
+public class LoginThrottledException extends Exception {
+    public LoginThrottledException() {
+        super();
+    }
+
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+
+    public LoginThrottledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public LoginThrottledException(Throwable cause) {
+        super(cause);
+    }
+}
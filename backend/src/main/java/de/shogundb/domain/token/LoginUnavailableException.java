@@ -0,0 +1,19 @@
+package de.shogundb.domain.token;
+
+public class LoginUnavailableException extends Exception {
+    public LoginUnavailableException() {
+        super();
+    }
+
+    public LoginUnavailableException(String message) {
+        super(message);
+    }
+
+    public LoginUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public LoginUnavailableException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,74 @@
+package de.shogundb.domain.token;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+
+/**
+ * Verifies passwords against their BCrypt hashes on a small, bounded thread pool. BCrypt is slow on purpose, so many
+ * logins at once (or an attack) would otherwise keep all request threads busy. If all threads of the pool are busy
+ * and the queue is full, further logins are rejected immediately.
+ */
+@Component
+public class PasswordVerifier {
+    private final ThreadPoolExecutor executor;
+    private final int timeout;
+
+    @Autowired
+    public PasswordVerifier(
+            @Value("${shogundb.login.threads:2}") int threads,
+            @Value("${shogundb.login.queue-size:16}") int queueSize,
+            @Value("${shogundb.login.timeout:10}") int timeout) {
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize));
+        this.timeout = timeout;
+    }
+
+    /**
+     * Checks, if the given password matches the hash.
+     *
+     * @param password the plain password
+     * @param hash     the BCrypt hash of the password
+     * @return true, if the password matches the hash
+     * @throws LoginUnavailableException thrown, if too many passwords are verified at once or the verification took
+     *                                   too long
+     */
+    public boolean verify(String password, String hash) throws LoginUnavailableException {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> BCrypt.checkpw(password, hash));
+        } catch (RejectedExecutionException e) {
+            throw new LoginUnavailableException("Too many logins at once", e);
+        }
+
+        try {
+            return result.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new LoginUnavailableException("The password verification timed out", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginUnavailableException(e);
+        } catch (ExecutionException e) {
+            // e.g. an invalid hash
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
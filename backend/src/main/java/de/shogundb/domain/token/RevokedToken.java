@@ -0,0 +1,46 @@
+package de.shogundb.domain.token;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A signed token, which has been deleted before it expired, or a user, whose signed tokens have all been revoked.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * The SHA-256 digest of the revoked token (null, if all tokens of a user are revoked). The column is a fixed-length
+     * binary column like the digest of a token, so MySQL can index it.
+     */
+    @Column(columnDefinition = "BINARY(32)", unique = true)
+    private byte[] hash;
+
+    /**
+     * The unique identifier of the user, whose tokens are revoked (null, if a single token is revoked).
+     */
+    private Long userId;
+
+    /**
+     * The date the tokens of the user were revoked (all tokens issued before are invalid).
+     */
+    private Date revokedDate;
+
+    /**
+     * The date the revoked token (or the last revoked token of the user) expires. Afterwards it is removed from the
+     * revocation list.
+     */
+    private Date expireDate;
+}
@@ -0,0 +1,12 @@
+package de.shogundb.domain.token;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByExpireDateAfter(Date date);
+
+    void deleteByExpireDateBefore(Date date);
+}
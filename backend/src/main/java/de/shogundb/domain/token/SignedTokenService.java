@@ -0,0 +1,247 @@
+package de.shogundb.domain.token;
+
+import de.shogundb.domain.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies self-contained tokens, which carry the id and the name of the user and the expire date. The
+ * tokens are signed with HMAC-SHA256, so they can be verified in memory by every instance sharing the secret.
+ * <p>
+ * A signed token consists of the base64 encoded payload and signature, separated by a dot (random tokens never contain
+ * a dot). Deleted tokens are stored in the revocation list until they expire. Deleted users are stored in the
+ * revocation list, too, and all tokens issued to them before are rejected. The list is kept in memory and reloaded
+ * from the database at startup and periodically, so the revocations of other instances are applied, too.
+ * <p>
+ * Tokens must not be valid longer than the maximum age, so the revoked users can be removed from the list afterwards.
+ */
+@Service
+public class SignedTokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * The minimum length of the secret (256 bits).
+     */
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec key;
+    private final long maxAge;
+
+    /**
+     * The digests of all revoked tokens and the time they expire (milliseconds since the epoch).
+     */
+    private final Map<ByteBuffer, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * The unique identifiers of all revoked users and the time they were revoked (milliseconds since the epoch).
+     */
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SignedTokenService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${shogundb.token.secret:}") String secret,
+            @Value("${shogundb.token.max-age:86400}") int maxAge) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.maxAge = maxAge * 1000L;
+
+        byte[] keyBytes;
+        if (secret.isEmpty()) {
+            // without a configured secret the tokens are only valid for this instance until it is restarted
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            random.nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("The token secret must have at least 256 bits");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Checks, if the given token is a signed token (otherwise it is a random token stored in the database).
+     *
+     * @param token the plain token
+     * @return true, if the token is a signed token
+     */
+    public boolean isSigned(String token) {
+        return token.indexOf('.') >= 0;
+    }
+
+    /**
+     * Issues a new signed token for the given user.
+     *
+     * @param user       the user the token belongs to
+     * @param expireDate the date the token expires (at most the maximum age from now)
+     * @return the signed token
+     */
+    public String sign(User user, Date expireDate) {
+        var issued = System.currentTimeMillis();
+
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            // a random nonce, so every token is unique
+            output.writeLong(random.nextLong());
+            output.writeLong(user.getId());
+            output.writeLong(issued);
+            output.writeLong(Math.min(expireDate.getTime(), issued + maxAge));
+            output.writeUTF(user.getUsername());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var payload = encode(bytes.toByteArray());
+        return payload + "." + encode(signature(payload));
+    }
+
+    /**
+     * Verifies the signature of the given token and checks, that neither the token nor its user has been revoked and
+     * that it is not valid longer than the maximum age. The expire date is not checked.
+     *
+     * @param token the signed token
+     * @return the content of the token (without an id) or an empty optional, if the token is invalid or revoked
+     */
+    public Optional<CachedToken> verify(String token) {
+        var separator = token.lastIndexOf('.');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+        var payload = token.substring(0, separator);
+
+        try {
+            var signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature(payload), signature) || isRevoked(token)) {
+                return Optional.empty();
+            }
+
+            try (var input = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(payload)))) {
+                // skip the nonce
+                input.readLong();
+
+                var userId = input.readLong();
+                var issued = input.readLong();
+                var expireDate = new Date(input.readLong());
+                if (expireDate.getTime() - issued > maxAge || isRevoked(userId, issued)) {
+                    return Optional.empty();
+                }
+                return Optional.of(new CachedToken(null, userId, input.readUTF(), expireDate));
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Adds the given token to the revocation list.
+     *
+     * @param token the signed token
+     * @return true, if the token was revoked, or false, if the token is invalid or already revoked
+     */
+    @Transactional
+    public boolean revoke(String token) {
+        var verifiedToken = verify(token);
+        if (!verifiedToken.isPresent()) {
+            return false;
+        }
+
+        var hash = Token.hash(token);
+        var expireDate = verifiedToken.get().getExpireDate();
+        revokedTokenRepository.save(RevokedToken.builder()
+                .hash(hash)
+                .expireDate(expireDate)
+                .build());
+        revokedTokens.put(ByteBuffer.wrap(hash), expireDate.getTime());
+
+        return true;
+    }
+
+    /**
+     * Revokes all tokens issued to the given user until now (e.g. because the user has been deleted).
+     *
+     * @param userId the unique identifier of the user
+     */
+    @Transactional
+    public void revokeUser(Long userId) {
+        var now = System.currentTimeMillis();
+
+        // all tokens issued before are expired after the maximum age
+        revokedTokenRepository.save(RevokedToken.builder()
+                .userId(userId)
+                .revokedDate(new Date(now))
+                .expireDate(new Date(now + maxAge))
+                .build());
+        revokedUsers.merge(userId, now, Math::max);
+    }
+
+    /**
+     * Reloads the revocation list from the database and removes all expired tokens from it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${shogundb.token.revocation-refresh:60000}")
+    @Transactional
+    public void reload() {
+        var now = new Date();
+        revokedTokenRepository.deleteByExpireDateBefore(now);
+
+        for (var revokedToken : revokedTokenRepository.findByExpireDateAfter(now)) {
+            if (revokedToken.getUserId() != null) {
+                revokedUsers.merge(revokedToken.getUserId(), revokedToken.getRevokedDate().getTime(), Math::max);
+            } else {
+                revokedTokens.put(ByteBuffer.wrap(revokedToken.getHash()), revokedToken.getExpireDate().getTime());
+            }
+        }
+        revokedTokens.values().removeIf(expires -> expires < now.getTime());
+        revokedUsers.values().removeIf(revoked -> revoked + maxAge < now.getTime());
+
+        logger.debug("Reloaded {} revoked tokens", revokedTokens.size());
+    }
+
+    private boolean isRevoked(String token) {
+        return revokedTokens.containsKey(ByteBuffer.wrap(Token.hash(token)));
+    }
+
+    private boolean isRevoked(Long userId, long issued) {
+        var revoked = revokedUsers.get(userId);
+        return revoked != null && issued <= revoked;
+    }
+
+    private byte[] signature(String payload) {
+        try {
+            var mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            // every java platform supports HMAC-SHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -7,6 +7,9 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
 import javax.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 
 @Entity
@@ -22,8 +25,34 @@ public class Token {
     @ManyToOne
     private User user;
 
-    @Column(length = 1024, unique = true)
+    /**
+     * The SHA-256 digest of the token. Only the digest is stored, so the tokens can be looked up by a short fixed-length
+     * key and a leaked database does not contain any usable token. The column is a fixed-length binary column, because
+     * MySQL cannot index a BLOB column (the default mapping of a byte array) without a prefix length.
+     */
+    @Column(columnDefinition = "BINARY(32)", unique = true)
+    private byte[] hash;
+
+    /**
+     * The plain token, which is handed out to the client. It is only known right after the token has been generated.
+     */
+    @Transient
     private String token;
 
     private Date expireDate;
+
+    /**
+     * Returns the digest of the given plain token, which is stored instead of the token.
+     *
+     * @param token the plain token
+     * @return the SHA-256 digest of the token
+     */
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package de.shogundb.domain.token;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Caches the tokens presented by the clients, so authenticating a request does not need to access the database. Valid
+ * tokens are cached with their user for a few minutes, unknown tokens for a few seconds (so repeated requests with an
+ * invalid token do not query the database either). Both caches are bounded and remove the least recently used tokens
+ * first.
+ * <p>
+ * Deleted tokens and the tokens of changed or deleted users must be evicted explicitly.
+ */
+@Component
+public class TokenCache {
+    private final Map<String, Entry<CachedToken>> tokens;
+    private final Map<String, Entry<Boolean>> unknownTokens;
+    private final long timeToLive;
+    private final long unknownTimeToLive;
+
+    public TokenCache(
+            @Value("${shogundb.token.cache.size:1024}") int size,
+            @Value("${shogundb.token.cache.ttl:300}") int timeToLive,
+            @Value("${shogundb.token.cache.unknown-ttl:10}") int unknownTimeToLive) {
+        this.tokens = createMap(size);
+        this.unknownTokens = createMap(size);
+        this.timeToLive = timeToLive * 1000L;
+        this.unknownTimeToLive = unknownTimeToLive * 1000L;
+    }
+
+    /**
+     * Returns the cached token or loads and caches it.
+     *
+     * @param token  the plain token
+     * @param loader a function which loads the token from the database
+     * @return the cached token or an empty optional, if the token does not exist
+     */
+    public Optional<CachedToken> get(String token, Function<String, Optional<Token>> loader) {
+        var now = System.currentTimeMillis();
+
+        var cached = tokens.get(token);
+        if (cached != null && cached.isValid(now)) {
+            return Optional.of(cached.getValue());
+        }
+
+        var unknown = unknownTokens.get(token);
+        if (unknown != null && unknown.isValid(now)) {
+            return Optional.empty();
+        }
+
+        var loaded = loader.apply(token).map(existing -> new CachedToken(
+                existing.getId(),
+                existing.getUser().getId(),
+                existing.getUser().getUsername(),
+                existing.getExpireDate()));
+
+        if (loaded.isPresent()) {
+            unknownTokens.remove(token);
+            tokens.put(token, new Entry<>(loaded.get(), now + timeToLive));
+        } else {
+            tokens.remove(token);
+            unknownTokens.put(token, new Entry<>(true, now + unknownTimeToLive));
+        }
+        return loaded;
+    }
+
+    /**
+     * Removes the given token from the cache.
+     *
+     * @param token the plain token
+     */
+    public void evict(String token) {
+        tokens.remove(token);
+        unknownTokens.remove(token);
+    }
+
+    /**
+     * Removes all tokens of the given user from the cache (e.g. after the user has been deleted).
+     *
+     * @param userId the unique identifier of the user
+     */
+    public void evictUser(Long userId) {
+        synchronized (tokens) {
+            tokens.values().removeIf(entry -> entry.getValue().getUserId().equals(userId));
+        }
+    }
+
+    /**
+     * Removes all tokens from the cache.
+     */
+    public void clear() {
+        tokens.clear();
+        unknownTokens.clear();
+    }
+
+    private static <T> Map<String, Entry<T>> createMap(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * A cached value and the time it expires (milliseconds since the epoch).
+     *
+     * @param <T> the type of the cached value
+     */
+    private static class Entry<T> {
+        private final T value;
+        private final long expires;
+
+        Entry(T value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        boolean isValid(long now) {
+            return now < expires;
+        }
+    }
+}
@@ -5,9 +5,9 @@ import de.shogundb.domain.user.UserAuthenticate;
 import de.shogundb.domain.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.Date;
 
 @RestController
@@ -15,32 +15,72 @@ import java.util.Date;
 public class TokenController {
     private final TokenRepository tokenRepository;
     private final TokenService tokenService;
+    private final SignedTokenService signedTokenService;
+    private final TokenCache tokenCache;
+    private final TokenSweeper tokenSweeper;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginThrottle loginThrottle;
     private final UserRepository userRepository;
 
     @Autowired
-    public TokenController(TokenRepository tokenRepository, TokenService tokenService, UserRepository userRepository) {
+    public TokenController(
+            TokenRepository tokenRepository,
+            TokenService tokenService,
+            SignedTokenService signedTokenService,
+            TokenCache tokenCache,
+            TokenSweeper tokenSweeper,
+            PasswordVerifier passwordVerifier,
+            LoginThrottle loginThrottle,
+            UserRepository userRepository) {
         this.tokenRepository = tokenRepository;
         this.tokenService = tokenService;
+        this.signedTokenService = signedTokenService;
+        this.tokenCache = tokenCache;
+        this.tokenSweeper = tokenSweeper;
+        this.passwordVerifier = passwordVerifier;
+        this.loginThrottle = loginThrottle;
         this.userRepository = userRepository;
     }
 
+    /**
+     * Generates a new token for the user with the given username and password. The password is verified on a bounded
+     * thread pool and the logins are throttled per username and client address and per client address.
+     *
+     * @param userAuthenticate the username and the password
+     * @param request          a servlet request object to get the address of the client
+     * @return a HTTP 200 OK and the new token
+     * @throws LoginThrottledException   thrown, if the username or the address has too many failed logins
+     * @throws LoginUnavailableException thrown, if too many logins are verified at once
+     */
     @PostMapping
-    public ResponseEntity<String> store(@RequestBody UserAuthenticate userAuthenticate) {
+    public ResponseEntity<String> store(@RequestBody UserAuthenticate userAuthenticate, HttpServletRequest request)
+            throws LoginThrottledException, LoginUnavailableException {
+        var username = userAuthenticate.getUsername();
+        var address = loginThrottle.getClientAddress(request);
+
+        loginThrottle.reserve(username, address);
+
         // load user from database, if exists
-        User user = this.userRepository
-                .findByUsername(userAuthenticate.getUsername())
-                .orElseThrow(SecurityException::new);
+        User user = this.userRepository.findByUsername(username).orElse(null);
 
-        // check, if password is valid
-        if (!BCrypt.checkpw(userAuthenticate.getPassword(), user.getPassword())) {
+        // check, if password is valid (the reserved attempt counts as failed)
+        boolean valid;
+        try {
+            valid = user != null && passwordVerifier.verify(userAuthenticate.getPassword(), user.getPassword());
+        } catch (LoginUnavailableException e) {
+            loginThrottle.cancelled(username, address);
+            throw e;
+        }
+        if (!valid) {
             throw new SecurityException();
         }
+        loginThrottle.succeeded(username, address);
 
         return ResponseEntity.ok(this.tokenService.generate(user).getToken());
     }
 
     /**
-     * Removes the given token from the database.
+     * Removes the given token from the database (signed tokens are added to the revocation list).
      *
      * @param token the token to remove
      * @return a HTTP 204 NO CONTENT if the token was removed successfully
@@ -48,19 +88,34 @@ public class TokenController {
      */
     @DeleteMapping("/{token}")
     public ResponseEntity<?> delete(@PathVariable String token) throws TokenNotFoundException {
+        if (signedTokenService.isSigned(token)) {
+            if (!signedTokenService.revoke(token)) {
+                throw new TokenNotFoundException(token);
+            }
+            return ResponseEntity.noContent().build();
+        }
+
         var existingToken = tokenRepository.findByToken(token).orElseThrow(() -> new TokenNotFoundException(token));
 
         // unlink the token from the user
         existingToken.getUser().getToken().remove(existingToken);
 
-        // remove the token from the database
+        // remove the token from the database and the cache
         tokenRepository.delete(existingToken);
+        tokenCache.evict(token);
 
         return ResponseEntity.noContent().build();
     }
 
     @RequestMapping(value = "/{token}", method = RequestMethod.HEAD)
     public ResponseEntity<?> validate(@PathVariable String token) {
+        // signed tokens are verified without accessing the database
+        if (signedTokenService.isSigned(token)) {
+            return signedTokenService.verify(token).filter(signedToken -> !signedToken.isExpired()).isPresent()
+                    ? ResponseEntity.ok().build()
+                    : ResponseEntity.status(401).build();
+        }
+
         // check if the token exists
         if (this.tokenRepository.findByToken(token).isPresent()) {
             Token checkToken = this.tokenRepository.findByToken(token).get();
@@ -72,4 +127,14 @@ public class TokenController {
         }
         return ResponseEntity.status(401).build();
     }
+
+    /**
+     * An endpoint to show the number of expired tokens removed by the token sweeper.
+     *
+     * @return a HTTP 200 OK and the statistics of the token sweeper
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<TokenSweeperStatistics> metrics() {
+        return ResponseEntity.ok(tokenSweeper.getStatistics());
+    }
 }
@@ -0,0 +1,17 @@
+package de.shogundb.domain.token;
+
+/**
+ * The kind of tokens handed out to the clients.
+ */
+public enum TokenMode {
+    /**
+     * Random tokens, which are stored in the database and looked up on every request (or cached by the TokenCache).
+     */
+    DATABASE,
+
+    /**
+     * Self-contained tokens signed with a secret, which are verified without accessing the database. Deleted tokens
+     * are added to a revocation list.
+     */
+    SIGNED
+}
@@ -1,9 +1,42 @@
 package de.shogundb.domain.token;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Long> {
-    Optional<Token> findByToken(String token);
+    Optional<Token> findByHash(byte[] hash);
+
+    /**
+     * Finds a token by the plain token presented by the client.
+     *
+     * @param token the plain token
+     * @return the token or an empty optional, if the token does not exist
+     */
+    default Optional<Token> findByToken(String token) {
+        return findByHash(Token.hash(token));
+    }
+
+    @Query("SELECT t.id FROM Token t WHERE t.expireDate < :date ORDER BY t.id")
+    List<Long> findExpiredIds(@Param("date") Date date, Pageable pageable);
+
+    /**
+     * Removes the given tokens from the token lists of their users (the join table of User.token).
+     *
+     * @param ids the unique identifiers of the tokens
+     */
+    @Modifying
+    @Query(value = "DELETE FROM user_token WHERE token_id IN :ids", nativeQuery = true)
+    void unlinkByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,20 +1,38 @@
 package de.shogundb.domain.token;
 
 import de.shogundb.domain.user.User;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Optional;
 
 @Service
 public class TokenService {
+    /**
+     * The number of random bytes of a token.
+     */
+    private static final int TOKEN_BYTES = 32;
+
     private final TokenRepository tokenRepository;
+    private final SignedTokenService signedTokenService;
+    private final TokenMode tokenMode;
+    private final SecureRandom random = new SecureRandom();
 
     @Autowired
-    public TokenService(TokenRepository tokenRepository) {
+    public TokenService(
+            TokenRepository tokenRepository,
+            SignedTokenService signedTokenService,
+            @Value("${shogundb.token.mode:DATABASE}") TokenMode tokenMode) {
         this.tokenRepository = tokenRepository;
+        this.signedTokenService = signedTokenService;
+        this.tokenMode = tokenMode;
     }
 
     public Token generate(User user) {
@@ -27,9 +45,20 @@ public class TokenService {
     }
 
     public Token generate(User user, Date expireDate) {
-        // build token
+        // signed tokens are not stored at all
+        if (tokenMode == TokenMode.SIGNED) {
+            return Token.builder()
+                    .token(signedTokenService.sign(user, expireDate))
+                    .expireDate(expireDate)
+                    .user(user)
+                    .build();
+        }
+
+        // build token (only the digest of the token is stored)
+        String plainToken = generateToken();
         Token token = Token.builder()
-                .token(generateToken())
+                .hash(Token.hash(plainToken))
+                .token(plainToken)
                 .expireDate(expireDate)
                 .user(user)
                 .build();
@@ -43,13 +72,41 @@ public class TokenService {
     }
 
     private String generateToken() {
-        // generate a random string with the length of 1024
-        String tokenString;
-        do {
-            tokenString = RandomStringUtils.randomAlphanumeric(1024, 1024);
-        } while (tokenRepository.findByToken(tokenString).isPresent());
+        // 256 random bits, so the token does not need to be checked for collisions
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
 
-        return tokenString;
+    /**
+     * Deletes a batch of expired tokens (the oldest tokens first).
+     *
+     * @param batchSize the maximum number of tokens to delete
+     * @return the number of deleted tokens
+     */
+    @Transactional
+    public int deleteExpired(int batchSize) {
+        var ids = tokenRepository.findExpiredIds(new Date(), PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        tokenRepository.unlinkByIds(ids);
+        return tokenRepository.deleteByIds(ids);
+    }
+
+    /**
+     * Returns the unique identifier of the user the given token belongs to.
+     *
+     * @param token the plain (random or signed) token
+     * @return the unique identifier of the user or an empty optional, if the token is invalid
+     */
+    public Optional<Long> getUserId(String token) {
+        if (signedTokenService.isSigned(token)) {
+            return signedTokenService.verify(token).map(CachedToken::getUserId);
+        }
+        return tokenRepository.findByToken(token).map(existing -> existing.getUser().getId());
     }
 
     public User getUser(String token) {
@@ -0,0 +1,64 @@
+package de.shogundb.domain.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes expired tokens from the database periodically. The tokens are deleted in batches, each in its own
+ * transaction, so the token table is never locked for long.
+ */
+@Component
+public class TokenSweeper {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final TokenService tokenService;
+    private final int batchSize;
+
+    private final AtomicLong removed = new AtomicLong();
+    private volatile long lastRemoved;
+    private volatile Date lastRun;
+
+    @Autowired
+    public TokenSweeper(
+            TokenService tokenService,
+            @Value("${shogundb.token.sweep-batch-size:500}") int batchSize) {
+        this.tokenService = tokenService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Deletes all expired tokens.
+     */
+    @Scheduled(fixedDelayString = "${shogundb.token.sweep-delay:3600000}")
+    public void sweep() {
+        long count = 0;
+        int deleted;
+        do {
+            deleted = tokenService.deleteExpired(batchSize);
+            count += deleted;
+        } while (deleted >= batchSize);
+
+        removed.addAndGet(count);
+        lastRemoved = count;
+        lastRun = new Date();
+
+        if (count > 0) {
+            logger.info("Removed {} expired tokens", count);
+        }
+    }
+
+    /**
+     * Returns the number of removed tokens since the start of the application and of the last run.
+     *
+     * @return the statistics of the sweeper
+     */
+    public TokenSweeperStatistics getStatistics() {
+        return new TokenSweeperStatistics(removed.get(), lastRemoved, lastRun);
+    }
+}
@@ -0,0 +1,27 @@
+package de.shogundb.domain.token;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenSweeperStatistics {
+    /**
+     * The number of expired tokens removed since the start of the application.
+     */
+    private long removed;
+
+    /**
+     * The number of expired tokens removed by the last run.
+     */
+    private long lastRemoved;
+
+    /**
+     * The date of the last run (null, if the sweeper has not run yet).
+     */
+    private Date lastRun;
+}
@@ -1,7 +1,7 @@
 package de.shogundb.domain.user;
 
-import de.shogundb.domain.token.Token;
-import de.shogundb.domain.token.TokenRepository;
+import de.shogundb.domain.token.SignedTokenService;
+import de.shogundb.domain.token.TokenCache;
 import de.shogundb.domain.token.TokenService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,22 +17,27 @@ import javax.validation.Valid;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/user")
 public class UserController {
     private final UserRepository userRepository;
-    private final TokenRepository tokenRepository;
     private final TokenService tokenService;
+    private final SignedTokenService signedTokenService;
+    private final TokenCache tokenCache;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
 
     @Autowired
-    public UserController(UserRepository userRepository, TokenRepository tokenRepository, TokenService tokenService) {
+    public UserController(
+            UserRepository userRepository,
+            TokenService tokenService,
+            SignedTokenService signedTokenService,
+            TokenCache tokenCache) {
         this.userRepository = userRepository;
-        this.tokenRepository = tokenRepository;
         this.tokenService = tokenService;
+        this.signedTokenService = signedTokenService;
+        this.tokenCache = tokenCache;
     }
 
     /**
@@ -107,6 +112,9 @@ public class UserController {
                                 // save updated user
                                 User updatedUser = this.userRepository.save(existing);
 
+                                // the cached tokens still contain the old principal
+                                tokenCache.evictUser(id);
+
                                 // return updated user
                                 URI uri = URI.create(ServletUriComponentsBuilder.fromCurrentRequest().toUriString());
                                 return ResponseEntity.created(uri).body(updatedUser);
@@ -133,6 +141,10 @@ public class UserController {
             return userRepository.findById(id).map(
                     existing -> {
                         userRepository.delete(existing);
+
+                        // the signed tokens of the user are not stored, so they must be revoked
+                        tokenCache.evictUser(id);
+                        signedTokenService.revokeUser(id);
                         return ResponseEntity.noContent().build();
                     }).orElseThrow(() -> new UserNotFoundException(id));
         }
@@ -204,10 +216,6 @@ public class UserController {
         final String header = request.getHeader("Authorization");
         final String plaintToken = header.replace("Bearer ", "");
 
-        Optional<Token> tokenOptional = this.tokenRepository.findByToken(plaintToken);
-        Token token = tokenOptional.get();
-        User user = token.getUser();
-
-        return user.getId();
+        return this.tokenService.getUserId(plaintToken).get();
     }
 }
@@ -1 +0,0 @@
-CREATE ALIAS IF NOT EXISTS GET_DIFF FOR "de.shogundb.ShogunDBApplication.period";
\ No newline at end of file
@@ -0,0 +1,431 @@
+package de.shogundb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.shogundb.conditions.ConditionCodec;
+import de.shogundb.conditions.ConditionDeserializer;
+import de.shogundb.conditions.ConditionGuard;
+import de.shogundb.conditions.ConditionProfiler;
+import de.shogundb.conditions.ConditionTimeoutException;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.MainCondition;
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.conditions.PeriodFormat;
+import de.shogundb.conditions.SubqueryMode;
+import de.shogundb.conditions.statements.AgeCondition;
+import de.shogundb.conditions.statements.MembershipCondition;
+import de.shogundb.conditions.statements.OrCondition;
+import de.shogundb.configuration.ControllerAdviceConfig;
+import de.shogundb.domain.contributionClass.ContributionClass;
+import de.shogundb.domain.contributionClass.ContributionClassRepository;
+import de.shogundb.domain.discipline.Discipline;
+import de.shogundb.domain.discipline.DisciplineRepository;
+import de.shogundb.domain.member.Member;
+import de.shogundb.domain.member.MemberRepository;
+import de.shogundb.domain.seminar.Seminar;
+import de.shogundb.domain.seminar.SeminarRepository;
+import de.shogundb.domain.seminar.SeminarType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles(profiles = "test")
+@AutoConfigureTestDatabase
+@Transactional
+public class ConditionControllerTests {
+    @Autowired
+    private ContributionClassRepository contributionClassRepository;
+
+    @Autowired
+    private DisciplineRepository disciplineRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeminarRepository seminarRepository;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @PersistenceContext
+    private EntityManager enitityManager;
+
+    @Value("${spring.jpa.database}")
+    private String databaseType;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    public void membership_index_is_updated_by_the_member_controller() throws Exception {
+        var contributionClass = contributionClassRepository.save(ContributionClass.builder()
+                .name("Test Contribution Class")
+                .baseContribution(10.0)
+                .additionalContribution(5.0)
+                .build());
+
+        var discipline = disciplineRepository.save(Discipline.builder()
+                .name("Test Discipline")
+                .build());
+        enitityManager.flush();
+        membershipIndex.rebuild();
+
+        // add a member of the discipline through the member controller
+        var member = new HashMap<String, Object>();
+        member.put("forename", "Max");
+        member.put("surname", "Mustermann");
+        member.put("gender", "MALE");
+        member.put("street", "Musterstraße");
+        member.put("postcode", "26721");
+        member.put("city", "Emden");
+        member.put("phoneNumber", "04929 5435438");
+        member.put("email", "max@muster.de");
+        member.put("dateOfBirth", "2000-01-02");
+        member.put("hasBudoPass", false);
+        member.put("enteredDate", "2018-01-02");
+        member.put("contributionClass", contributionClass.getId());
+        member.put("accountHolder", "Max Mustermann");
+        member.put("disciplines", List.of(discipline.getId()));
+        var memberJson = TestHelper.toJson(member);
+
+        var response = mockMvc.perform(post("/member")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(memberJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        var memberId = objectMapper.readTree(response).get("id").asLong();
+
+        var condition = "{\"condition\": {\"type\": \"DISCIPLINE\", \"id\": " + discipline.getId() + "}}";
+
+        // the member list and the conditions find the member by the index
+        mockMvc.perform(get("/con/members").param("disciplines", discipline.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(is((int) memberId)))
+                .andExpect(jsonPath("$[0].disciplines", hasSize(1)));
+
+        mockMvc.perform(post("/con/memory")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(is((int) memberId)));
+
+        // the deleted member is removed from the index
+        mockMvc.perform(delete("/member/" + memberId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/con/members").param("disciplines", discipline.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(post("/con/memory")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void membership_index_is_updated_by_seminar_and_discipline_writes() throws Exception {
+        var member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+        var memberIndex = member.getId().intValue();
+
+        var discipline = disciplineRepository.save(Discipline.builder()
+                .name("Test Discipline")
+                .build());
+
+        // two seminars of the same type in the same year
+        Seminar seminar1 = seminarRepository.save(TestHelper.createTestSeminar());
+        Seminar seminar2 = seminarRepository.save(TestHelper.createTestSeminar());
+        enitityManager.flush();
+        membershipIndex.rebuild();
+
+        mockMvc.perform(post("/discipline/member/" + discipline.getId() + "/" + member.getId()))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/seminar/member/" + seminar1.getId() + "/" + member.getId()))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/seminar/member/" + seminar2.getId() + "/" + member.getId()))
+                .andExpect(status().isCreated());
+
+        assertTrue(membershipIndex.getDisciplineMembers(discipline.getId()).get(memberIndex));
+        assertTrue(membershipIndex.getSeminarMembers(SeminarType.NATIONAL, 2018).get(memberIndex));
+
+        // the member still visited the second seminar of the year
+        mockMvc.perform(delete("/seminar/member/" + seminar1.getId() + "/" + member.getId()))
+                .andExpect(status().isNoContent());
+
+        assertTrue(membershipIndex.getSeminarMembers(SeminarType.NATIONAL, 2018).get(memberIndex));
+
+        mockMvc.perform(delete("/seminar/member/" + seminar2.getId() + "/" + member.getId()))
+                .andExpect(status().isNoContent());
+
+        assertFalse(membershipIndex.getSeminarMembers(SeminarType.NATIONAL, 2018).get(memberIndex));
+
+        // the deleted discipline is removed from the index
+        mockMvc.perform(delete("/discipline/" + discipline.getId()))
+                .andExpect(status().isNoContent());
+
+        assertTrue(membershipIndex.getDisciplineMembers(discipline.getId()).isEmpty());
+    }
+
+    @Test
+    public void matching_members_are_counted_and_paged() throws Exception {
+        var members = createMembers(3);
+        enitityManager.flush();
+
+        // the members are more than 120 years old
+        var condition = "{\"condition\": {\"type\": \"AGE\", \"minAge\": 120, \"maxAge\": 130}}";
+
+        mockMvc.perform(post("/con/count")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+
+        // the first page
+        mockMvc.perform(post("/con/page")
+                .param("size", "2")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(is(members.get(0).getId().intValue())))
+                .andExpect(jsonPath("$[1].id").value(is(members.get(1).getId().intValue())));
+
+        // the last page starts after the last member of the first page
+        mockMvc.perform(post("/con/page")
+                .param("after", members.get(1).getId().toString())
+                .param("size", "2")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(is(members.get(2).getId().intValue())));
+
+        // no members after the last member
+        mockMvc.perform(post("/con/page")
+                .param("after", members.get(2).getId().toString())
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        // the size of a page is limited
+        for (var size : List.of("0", "1001")) {
+            mockMvc.perform(post("/con/page")
+                    .param("size", size)
+                    .contentType(APPLICATION_JSON_UTF8)
+                    .content(condition))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void matching_members_are_streamed() throws Exception {
+        // the members are streamed on another thread, which can only read committed members
+        var members = createMembers(2);
+
+        try {
+            var result = mockMvc.perform(post("/con/stream")
+                    .contentType(APPLICATION_JSON_UTF8)
+                    .content("{\"condition\": {\"type\": \"AGE\", \"minAge\": 120, \"maxAge\": 130}}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON_UTF8))
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[0].id").value(is(members.get(0).getId().intValue())))
+                    .andExpect(jsonPath("$[0].forename").value(is("Max")))
+                    .andExpect(jsonPath("$[0].surname").value(is("Mustermann")))
+                    .andExpect(jsonPath("$[0].dateOfBirth").value(is("1900-01-02")))
+                    .andExpect(jsonPath("$[0].enteredDate").value(is("2018-01-02")))
+                    .andExpect(jsonPath("$[1].id").value(is(members.get(1).getId().intValue())));
+
+            // no matching members
+            result = mockMvc.perform(post("/con/stream")
+                    .contentType(APPLICATION_JSON_UTF8)
+                    .content("{\"condition\": {\"type\": \"AGE\", \"minAge\": 140, \"maxAge\": 150}}"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("[]"));
+        } finally {
+            memberRepository.deleteAll(members);
+            members.forEach(member -> contributionClassRepository.delete(member.getContributionClass()));
+        }
+    }
+
+    @Test
+    public void batches_are_validated() throws Exception {
+        var age = "{\"condition\": {\"type\": \"AGE\", \"minAge\": 0, \"maxAge\": 100}}";
+        var membership = "{\"condition\": {\"type\": \"MEMBERSHIP\", \"period\": 1, \"periodFormat\": \"YEAR\"}}";
+
+        // a result for every condition
+        mockMvc.perform(post("/con/batch")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("[" + age + ", " + membership + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        // an element without a condition
+        mockMvc.perform(post("/con/batch")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("[" + age + ", {}]"))
+                .andExpect(status().isBadRequest());
+
+        // an element, which is null
+        mockMvc.perform(post("/con/batch")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("[" + age + ", null]"))
+                .andExpect(status().isBadRequest());
+
+        // an element with an invalid nested condition
+        mockMvc.perform(post("/con/batch")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("[{\"condition\": {\"type\": \"NOT\", \"condition\": "
+                        + "{\"type\": \"AGE\", \"minAge\": 20, \"maxAge\": 10}}}]"))
+                .andExpect(status().isBadRequest());
+
+        // too many conditions
+        mockMvc.perform(post("/con/batch")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("[" + String.join(", ", Collections.nCopies(101, age)) + "]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void encoded_conditions_are_validated() throws Exception {
+        var valid = ConditionCodec.encode(new AgeCondition(0, 100));
+        var invalid = ConditionCodec.encode(new AgeCondition(20, 10));
+        var unknownType = ConditionCodec.PREFIX + Base64.getUrlEncoder().encodeToString(new byte[]{1, 99});
+
+        mockMvc.perform(post("/con/memory")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"condition\": \"" + valid + "\"}"))
+                .andExpect(status().isOk());
+
+        // malformed conditions are rejected with a HTTP 400 BAD REQUEST
+        for (var condition : List.of(invalid, unknownType, ConditionCodec.PREFIX + "AQ")) {
+            mockMvc.perform(post("/con/memory")
+                    .contentType(APPLICATION_JSON_UTF8)
+                    .content("{\"condition\": \"" + condition + "\"}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        // fields of the wrong kind are rejected as well
+        mockMvc.perform(post("/con/memory")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"condition\": {\"type\": \"AGE\", \"minAge\": {\"value\": 0}, \"maxAge\": 100}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void deeply_nested_conditions_are_rejected() throws Exception {
+        var depth = ConditionDeserializer.MAX_DEPTH * 100;
+        var condition = new StringBuilder("{\"condition\": ");
+        for (int i = 0; i < depth; i++) {
+            condition.append("{\"type\": \"NOT\", \"condition\": ");
+        }
+        condition.append("{\"type\": \"AGE\", \"minAge\": 0, \"maxAge\": 100}");
+        for (int i = 0; i < depth; i++) {
+            condition.append("}");
+        }
+        condition.append("}");
+
+        mockMvc.perform(post("/con/explain")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content(condition.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void explanations_are_cancelled_after_the_deadline() throws Exception {
+        var guard = new ConditionGuard(1000, 16, 10);
+        var condition = new MainCondition(OrCondition.builder().conditions(List.of(
+                new AgeCondition(0, 100),
+                new MembershipCondition(1, PeriodFormat.YEAR))).build());
+        guard.check(condition);
+
+        var profiler = new ConditionProfiler(
+                enitityManager, DatabaseType.valueOf(databaseType), SubqueryMode.CORRELATED, LocalDate.now());
+
+        // within the deadline
+        assertEquals(2, guard.execute(() -> profiler.explain(condition)).getProfile().getChildren().size());
+
+        // the deadline has passed
+        try {
+            guard.execute(() -> profiler.explain(condition, System.nanoTime() - 1));
+            fail();
+        } catch (ConditionTimeoutException e) {
+            // the timeout is answered with a HTTP 503 SERVICE UNAVAILABLE
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                    new ControllerAdviceConfig().handleConditionTimeoutException(e).getStatusCode());
+        }
+        assertEquals(1, guard.getStatistics().getTimeouts());
+    }
+
+    /**
+     * Adds the given number of members, which were born on 1900-01-02, to the database.
+     *
+     * @param count the number of members
+     * @return the new members ordered by their id
+     */
+    private List<Member> createMembers(int count) {
+        var members = new ArrayList<Member>();
+        for (int i = 0; i < count; i++) {
+            var member = TestHelper.createTestMember(contributionClassRepository);
+            member.setDateOfBirth(LocalDate.parse("1900-01-02"));
+            members.add(memberRepository.save(member));
+        }
+        return members;
+    }
+}
@@ -1,15 +1,40 @@
 package de.shogundb;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.shogundb.conditions.ConditionCodec;
+import de.shogundb.conditions.ConditionCost;
+import de.shogundb.conditions.ConditionDeserializer;
+import de.shogundb.conditions.ConditionGuard;
+import de.shogundb.conditions.ConditionOptimizer;
+import de.shogundb.conditions.ConditionProfiler;
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.ConditionTooExpensiveException;
 import de.shogundb.conditions.DatabaseType;
 import de.shogundb.conditions.MainCondition;
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.conditions.MembershipIndex;
+import de.shogundb.conditions.SubqueryMode;
 import de.shogundb.conditions.statements.AgeCondition;
 import de.shogundb.conditions.statements.AndCondition;
+import de.shogundb.conditions.statements.ChampionshipCondition;
+import de.shogundb.conditions.statements.Condition;
+import de.shogundb.conditions.statements.DisciplineCondition;
+import de.shogundb.conditions.statements.EventCondition;
+import de.shogundb.conditions.statements.GraduationCondition;
 import de.shogundb.conditions.statements.MembershipCondition;
+import de.shogundb.conditions.statements.NotCondition;
+import de.shogundb.conditions.statements.OrCondition;
+import de.shogundb.conditions.statements.SeminarCondition;
+import de.shogundb.domain.championship.Championship;
+import de.shogundb.domain.championship.ChampionshipMember;
+import de.shogundb.domain.championship.ChampionshipMemberRepository;
 import de.shogundb.domain.championship.ChampionshipRepository;
 import de.shogundb.domain.contributionClass.ContributionClass;
 import de.shogundb.domain.contributionClass.ContributionClassRepository;
 import de.shogundb.domain.discipline.Discipline;
 import de.shogundb.domain.discipline.DisciplineRepository;
+import de.shogundb.domain.event.Event;
 import de.shogundb.domain.event.EventRepository;
 import de.shogundb.domain.exam.Exam;
 import de.shogundb.domain.exam.ExamRepository;
@@ -23,12 +48,14 @@ import de.shogundb.domain.member.MemberRepository;
 import de.shogundb.domain.person.Person;
 import de.shogundb.domain.person.PersonRepository;
 import de.shogundb.domain.seminar.SeminarRepository;
+import de.shogundb.domain.seminar.SeminarType;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,9 +64,19 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
 
+import static de.shogundb.conditions.MemberSnapshot.NO_DATE;
 import static de.shogundb.conditions.PeriodFormat.MONTH;
+import static de.shogundb.conditions.PeriodFormat.YEAR;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @SpringBootTest
 @RunWith(SpringRunner.class)
@@ -61,6 +98,8 @@ public class ConditionTests {
     public GraduationMember graduationMember1;
     public GraduationMember graduationMember2;
     @Autowired
+    private ChampionshipMemberRepository championshipMemberRepository;
+    @Autowired
     private ChampionshipRepository championshipRepository;
     @Autowired
     private ContributionClassRepository contributionClassRepository;
@@ -77,6 +116,12 @@ public class ConditionTests {
     @Autowired
     private MemberRepository memberRepository;
     @Autowired
+    private MembershipIndex membershipIndex;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
     private PersonRepository personRepository;
     @Autowired
     private SeminarRepository seminarRepository;
@@ -243,4 +288,643 @@ public class ConditionTests {
         var members2 = condition2.getMembers(enitityManager, DatabaseType.valueOf(databaseType));
         assertEquals(0, members2.size());
     }
+
+    @Test
+    public void conditions_are_compiled_to_parameterized_queries() {
+        setupEnvironment();
+
+        var type = DatabaseType.valueOf(databaseType);
+        var today = LocalDate.parse("2018-06-15");
+        var query1 = new MainCondition(new AgeCondition(21, 25)).compile(type, SubqueryMode.CORRELATED, today);
+        var query2 = new MainCondition(new AgeCondition(19, 20)).compile(type, SubqueryMode.CORRELATED, today);
+
+        // the values are bound as cutoff dates, so both conditions share one statement
+        assertEquals(query1.getSql(), query2.getSql());
+        assertFalse(query1.getSql().contains("21"));
+        assertFalse(query1.getSql().contains("GET_DIFF"));
+        assertEquals(List.of(LocalDate.parse("1997-06-15"), LocalDate.parse("1992-06-15")), query1.getParameters());
+        assertEquals(List.of(LocalDate.parse("1999-06-15"), LocalDate.parse("1997-06-15")), query2.getParameters());
+
+        // a different shape results in a different statement
+        var query3 = new MainCondition(new MembershipCondition(9, MONTH))
+                .compile(type, SubqueryMode.CORRELATED, today);
+        assertFalse(query1.getSql().equals(query3.getSql()));
+        assertEquals(List.of(LocalDate.parse("2017-09-15")), query3.getParameters());
+
+        // the bound query must return the same result as before
+        var members = new MainCondition(new AgeCondition(21, 25)).getMembers(enitityManager, type);
+        assertEquals(1, members.size());
+        assertEquals(member2, members.get(0));
+    }
+
+    @Test
+    public void semi_join_mode_avoids_correlated_subqueries() {
+        setupEnvironment();
+
+        var type = DatabaseType.valueOf(databaseType);
+        var condition = MainCondition.builder()
+                .condition(OrCondition.builder().conditions(new ArrayList<>() {{
+                    add(new GraduationCondition(graduation1.getId(), 3, MONTH));
+                    add(new GraduationCondition(graduation2.getId(), 1, MONTH));
+                }}).build()).build();
+
+        var correlated = condition.compile(type, SubqueryMode.CORRELATED);
+        var semiJoin = condition.compile(type, SubqueryMode.SEMI_JOIN);
+
+        assertTrue(correlated.getSql().contains("graduation_member.member_id = member.id"));
+        assertFalse(semiJoin.getSql().contains("graduation_member.member_id = member.id"));
+        assertTrue(semiJoin.getSql().contains("member.id IN (SELECT graduation_member.member_id"));
+
+        // both modes bind the same values
+        assertEquals(correlated.getParameters(), semiJoin.getParameters());
+
+        // both modes return the same members (the exam was 4 months ago)
+        var conditions = List.of(
+                condition.getCondition(),
+                new GraduationCondition(graduation1.getId(), 3, MONTH),
+                new GraduationCondition(graduation2.getId(), 6, MONTH),
+                AndCondition.builder().conditions(new ArrayList<>() {{
+                    add(new GraduationCondition(graduation1.getId(), 3, MONTH));
+                    add(new NotCondition(new GraduationCondition(graduation2.getId(), 1, MONTH)));
+                }}).build());
+        var expected = List.of(
+                List.of(member1.getId(), member2.getId()),
+                List.of(member1.getId()),
+                List.<Long>of(),
+                List.of(member1.getId()));
+
+        for (int i = 0; i < conditions.size(); i++) {
+            var mainCondition = new MainCondition(conditions.get(i));
+            for (var mode : SubqueryMode.values()) {
+                var memberIds = new ArrayList<Long>();
+                mainCondition.getMembers(enitityManager, type, mode).forEach(member -> memberIds.add(member.getId()));
+                assertEquals(expected.get(i), memberIds);
+            }
+        }
+    }
+
+    @Test
+    public void optimizer_removes_redundant_conditions() {
+        // nested, duplicate and mergeable conditions
+        var condition1 = AndCondition.builder().conditions(new ArrayList<>() {{
+            add(AndCondition.builder().conditions(new ArrayList<>() {{
+                add(new AgeCondition(10, 30));
+                add(new MembershipCondition(3, MONTH));
+            }}).build());
+            add(new GraduationCondition(1L, 3, MONTH));
+            add(new AgeCondition(15, 40));
+            add(new GraduationCondition(1L, 6, MONTH));
+            add(new MembershipCondition(3, MONTH));
+        }}).build();
+        assertEquals(AndCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(15, 30));
+            add(new MembershipCondition(3, MONTH));
+            add(new GraduationCondition(1L, 6, MONTH));
+        }}).build(), ConditionOptimizer.optimize(condition1));
+
+        // contradicting age ranges can never be fulfilled
+        var condition2 = AndCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(10, 12));
+            add(new AgeCondition(15, 20));
+        }}).build();
+        assertTrue(ConditionOptimizer.isAlwaysFalse(ConditionOptimizer.optimize(condition2)));
+
+        // overlapping age ranges are merged
+        var condition3 = OrCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(30, 40));
+            add(OrCondition.builder().conditions(new ArrayList<>() {{
+                add(new AgeCondition(10, 12));
+                add(new AgeCondition(13, 20));
+            }}).build());
+        }}).build();
+        assertEquals(OrCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(10, 20));
+            add(new AgeCondition(30, 40));
+        }}).build(), ConditionOptimizer.optimize(condition3));
+
+        // a single child replaces the AND
+        var condition4 = AndCondition.builder().conditions(new ArrayList<>() {{
+            add(new MembershipCondition(3, MONTH));
+            add(new MembershipCondition(3, MONTH));
+        }}).build();
+        assertEquals(new MembershipCondition(3, MONTH), ConditionOptimizer.optimize(condition4));
+    }
+
+    @Test
+    public void in_memory_evaluation_works_properly() {
+        setupEnvironment();
+
+        var snapshot = MemberSnapshot.load(enitityManager, LocalDate.now());
+        assertEquals(2, snapshot.size());
+
+        // should return only member 2
+        var condition1 = MainCondition.builder()
+                .condition(AndCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(15, Integer.MAX_VALUE));
+                    add(new MembershipCondition(9, MONTH));
+                }}).build()).build();
+        assertEquals(List.of(member2.getId()), condition1.getMemberIds(snapshot));
+
+        // should return no members
+        var condition2 = new MainCondition(new AgeCondition(19, 20));
+        assertEquals(0, condition2.getMemberIds(snapshot).size());
+
+        // should return only member 1 (exam of graduation 1 was 4 months ago)
+        var condition3 = new MainCondition(new GraduationCondition(graduation1.getId(), 3, MONTH));
+        assertEquals(List.of(member1.getId()), condition3.getMemberIds(snapshot));
+
+        // should return no members (the exam was not 5 months ago)
+        var condition4 = new MainCondition(new GraduationCondition(graduation1.getId(), 5, MONTH));
+        assertEquals(0, condition4.getMemberIds(snapshot).size());
+
+        // should return both members
+        var condition5 = MainCondition.builder()
+                .condition(OrCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(10, 10));
+                    add(new AgeCondition(21, 21));
+                }}).build()).build();
+        assertEquals(List.of(member1.getId(), member2.getId()), condition5.getMemberIds(snapshot));
+
+        // the in-memory evaluation must match the database
+        var members = condition1.getMembers(enitityManager, DatabaseType.valueOf(databaseType));
+        assertEquals(1, members.size());
+        assertEquals(member2, members.get(0));
+    }
+
+    @Test
+    public void matching_members_can_be_counted_and_paged() {
+        setupEnvironment();
+
+        var database = DatabaseType.valueOf(databaseType);
+        var condition = new MainCondition(new AgeCondition(0, 30));
+        assertEquals(2, condition.count(enitityManager, database, SubqueryMode.CORRELATED));
+
+        // fetch both members page by page
+        var page1 = condition.getMemberSummaries(enitityManager, database, SubqueryMode.CORRELATED, null, 1);
+        assertEquals(1, page1.size());
+        assertEquals(member1.getId(), page1.get(0).getId());
+        assertEquals(member1.getDateOfBirth(), page1.get(0).getDateOfBirth());
+
+        var page2 = condition.getMemberSummaries(
+                enitityManager, database, SubqueryMode.CORRELATED, page1.get(0).getId(), 1);
+        assertEquals(1, page2.size());
+        assertEquals(member2.getId(), page2.get(0).getId());
+
+        var page3 = condition.getMemberSummaries(
+                enitityManager, database, SubqueryMode.CORRELATED, page2.get(0).getId(), 1);
+        assertTrue(page3.isEmpty());
+    }
+
+    @Test
+    public void condition_results_are_cached_until_the_data_changes() {
+        setupEnvironment();
+        enitityManager.flush();
+
+        var database = DatabaseType.valueOf(databaseType);
+        var mode = SubqueryMode.CORRELATED;
+        var condition = new MainCondition(new AgeCondition(15, Integer.MAX_VALUE));
+        var statistics = ConditionResultCache.getStatistics();
+
+        // the first call loads the result, the second one is served from the cache
+        assertEquals(List.of(member2.getId()), condition.getMemberIds(enitityManager, database, mode));
+        assertEquals(List.of(member2.getId()), condition.getMemberIds(enitityManager, database, mode));
+        assertEquals(statistics.getMisses() + 1, ConditionResultCache.getStatistics().getMisses());
+        assertEquals(statistics.getHits() + 1, ConditionResultCache.getStatistics().getHits());
+
+        // changing a member invalidates the result
+        member1.setDateOfBirth(LocalDate.now().minusYears(30));
+        memberRepository.save(member1);
+        enitityManager.flush();
+
+        assertEquals(List.of(member1.getId(), member2.getId()), condition.getMemberIds(enitityManager, database, mode));
+        assertEquals(statistics.getMisses() + 2, ConditionResultCache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void membership_indexes_contain_all_members() {
+        setupEnvironment();
+        enitityManager.flush();
+        membershipIndex.rebuild();
+
+        var member1Row = Math.toIntExact(member1.getId());
+        var member2Row = Math.toIntExact(member2.getId());
+
+        // each member has achieved one of the graduations
+        assertTrue(membershipIndex.getGraduationMembers(graduation1.getId()).get(member1Row));
+        assertFalse(membershipIndex.getGraduationMembers(graduation1.getId()).get(member2Row));
+        assertTrue(membershipIndex.getGraduationMembers(graduation2.getId()).get(member2Row));
+
+        // the index of the discipline is updated incrementally
+        assertTrue(membershipIndex.getDisciplineMembers(discipline1.getId()).isEmpty());
+        membershipIndex.addDisciplineMember(discipline1.getId(), member2.getId());
+        assertTrue(membershipIndex.getDisciplineMembers(discipline1.getId()).get(member2Row));
+        membershipIndex.removeDisciplineMember(discipline1.getId(), member2.getId());
+        assertTrue(membershipIndex.getDisciplineMembers(discipline1.getId()).isEmpty());
+
+        // the returned bitmaps are copies
+        membershipIndex.getGraduationMembers(graduation1.getId()).clear();
+        assertTrue(membershipIndex.getGraduationMembers(graduation1.getId()).get(member1Row));
+    }
+
+    @Test
+    public void conditions_are_deserialized_and_validated() throws Exception {
+        var expected = AndCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(10, 20));
+            add(OrCondition.builder().conditions(new ArrayList<>() {{
+                add(new GraduationCondition(3L, 6, MONTH));
+                add(new SeminarCondition(2, SeminarType.LOCAL, 1, YEAR));
+            }}).build());
+        }}).build();
+
+        // the type may appear after the nested conditions and unknown fields are ignored
+        var json = "{\"conditions\": ["
+                + "{\"type\": \"AGE\", \"minAge\": 10, \"maxAge\": 20, \"label\": {\"text\": \"age\"}},"
+                + "{\"type\": \"OR\", \"conditions\": ["
+                + "{\"type\": \"GRADUATION\", \"id\": 3, \"period\": 6, \"periodFormat\": \"MONTH\"},"
+                + "{\"type\": \"SEMINAR\", \"quantity\": 2, \"seminarType\": \"LOCAL\", \"period\": 1, "
+                + "\"periodFormat\": \"YEAR\"}]}],"
+                + "\"type\": \"AND\"}";
+        assertEquals(expected, objectMapper.readValue(json, Condition.class));
+
+        // a condition with an invalid nested condition is invalid
+        var invalid = "{\"type\": \"AND\", \"conditions\": ["
+                + "{\"type\": \"AGE\", \"minAge\": 20, \"maxAge\": 10},"
+                + "{\"type\": \"MEMBERSHIP\", \"period\": 1, \"periodFormat\": \"YEAR\"}]}";
+        assertNull(objectMapper.readValue(invalid, Condition.class));
+
+        // the compact form is decoded to the same condition tree
+        var encoded = ConditionCodec.encode(expected);
+        assertTrue(ConditionCodec.isEncoded(encoded));
+        assertTrue(encoded.length() < json.length() / 3);
+        assertEquals(expected, ConditionCodec.decode(encoded));
+
+        // the decoded values are validated like the json
+        Condition nested = new AgeCondition(0, 100);
+        for (int i = 0; i < ConditionDeserializer.MAX_DEPTH; i++) {
+            nested = new NotCondition(nested);
+        }
+        var malformed = List.of(
+                ConditionCodec.encode(new AgeCondition(20, 10)),
+                ConditionCodec.encode(new DisciplineCondition(-1L)),
+                ConditionCodec.encode(new NotCondition(new GraduationCondition(1L, 0, YEAR))),
+                ConditionCodec.encode(new AndCondition(new ArrayList<>())),
+                ConditionCodec.encode(nested),
+                ConditionCodec.PREFIX + Base64.getUrlEncoder().encodeToString(new byte[]{1, 99}),
+                encoded.substring(0, encoded.length() - 4),
+                ConditionCodec.PREFIX + "not base64!");
+        for (var value : malformed) {
+            try {
+                ConditionCodec.decode(value);
+                fail(value);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        // values of the wrong kind are rejected instead of being converted or skipped
+        var wrongKinds = List.of(
+                "{\"type\": \"AGE\", \"minAge\": \"ten\", \"maxAge\": 20}",
+                "{\"type\": \"AGE\", \"minAge\": 10.5, \"maxAge\": 20}",
+                "{\"type\": \"AGE\", \"minAge\": 10, \"maxAge\": 9999999999}",
+                "{\"type\": [\"AGE\"], \"minAge\": 10, \"maxAge\": 20}",
+                "{\"type\": \"DISCIPLINE\", \"id\": {\"type\": \"AGE\"}}",
+                "{\"type\": \"SEMINAR\", \"quantity\": 2, \"seminarType\": 1, \"period\": 1, "
+                        + "\"periodFormat\": \"YEAR\"}");
+        for (var value : wrongKinds) {
+            try {
+                objectMapper.readValue(value, Condition.class);
+                fail(value);
+            } catch (JsonProcessingException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void branches_can_be_executed_in_parallel() {
+        setupEnvironment();
+        enitityManager.flush();
+
+        // the queries are executed on the calling thread, so they run within the transaction of the test
+        var database = DatabaseType.valueOf(databaseType);
+        var mode = SubqueryMode.SEMI_JOIN;
+
+        var or = MainCondition.builder()
+                .condition(OrCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(15, Integer.MAX_VALUE));
+                    add(new GraduationCondition(graduation1.getId(), 1, MONTH));
+                }}).build()).build();
+        ConditionResultCache.invalidate();
+        assertEquals(List.of(member1.getId(), member2.getId()),
+                or.getMemberIds(jdbcTemplate, Runnable::run, database, mode));
+
+        var and = MainCondition.builder()
+                .condition(AndCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(5, 15));
+                    add(new MembershipCondition(6, MONTH));
+                }}).build()).build();
+        ConditionResultCache.invalidate();
+        assertEquals(List.of(member1.getId()), and.getMemberIds(jdbcTemplate, Runnable::run, database, mode));
+        ConditionResultCache.invalidate();
+        assertEquals(List.of(member1.getId()), and.getMemberIds(enitityManager, database, mode));
+    }
+
+    @Test
+    public void snapshots_are_loaded_from_the_database() {
+        setupEnvironment();
+
+        // member 2 is a member of the discipline and reached the second place at the championship
+        discipline1.getMembers().add(member2);
+        member2.getDisciplines().add(discipline1);
+        disciplineRepository.save(discipline1);
+
+        var championship = championshipRepository.save(Championship.builder()
+                .name("Test Championship")
+                .date(LocalDate.now().minusMonths(1))
+                .build());
+        var championshipMember = ChampionshipMember.builder()
+                .championship(championship)
+                .member(member2)
+                .rank(2)
+                .build();
+        member2.getChampionships().add(championshipMember);
+        championship.getMembers().add(championshipMember);
+        championshipMemberRepository.save(championshipMember);
+        enitityManager.flush();
+
+        // all members
+        var snapshot = MemberSnapshot.load(enitityManager, LocalDate.now());
+        assertEquals(2, snapshot.size());
+        assertEquals((long) member1.getId(), snapshot.getMemberId(0));
+        assertEquals(member2.getDateOfBirth().toEpochDay(), snapshot.getDateOfBirth(1));
+        assertEquals(member2.getEnteredDate().toEpochDay(), snapshot.getEnteredDate(1));
+
+        // the disciplines are loaded without a date
+        var disciplines = snapshot.getDisciplines();
+        assertEquals(0, disciplines.to(0) - disciplines.from(0));
+        assertEquals(1, disciplines.to(1) - disciplines.from(1));
+        assertEquals((long) discipline1.getId(), disciplines.getKey(disciplines.from(1)));
+        assertEquals(NO_DATE, disciplines.getDate(disciplines.from(1)));
+
+        // the graduations are loaded with the date of the exam, the championships with the rank
+        var graduations = snapshot.getGraduations();
+        assertEquals((long) graduation1.getId(), graduations.getKey(graduations.from(0)));
+        assertEquals(exam.getDate().toEpochDay(), graduations.getDate(graduations.from(0)));
+        var championships = snapshot.getChampionships();
+        assertEquals(championship.getDate().toEpochDay(), championships.getDate(championships.from(1)));
+        assertEquals(2, championships.getValue(championships.from(1)));
+
+        // only the given members
+        snapshot = MemberSnapshot.load(enitityManager, LocalDate.now(), List.of(member2.getId()));
+        assertEquals(1, snapshot.size());
+        assertEquals((long) member2.getId(), snapshot.getMemberId(0));
+        assertEquals(1, snapshot.getDisciplines().to(0) - snapshot.getDisciplines().from(0));
+    }
+
+    @Test
+    public void set_based_conditions_work_properly() {
+        setupEnvironment();
+
+        // member 2 is a member of the discipline
+        discipline1.getMembers().add(member2);
+        member2.getDisciplines().add(discipline1);
+        disciplineRepository.save(discipline1);
+
+        // member 1 participated in the event
+        var event = eventRepository.save(Event.builder().name("Test Event").date(LocalDate.now().minusDays(5)).build());
+        event.getMembers().add(member1);
+        member1.getEvents().add(event);
+        eventRepository.save(event);
+
+        // member 2 reached the second place at the championship
+        var championship = championshipRepository.save(Championship.builder()
+                .name("Test Championship")
+                .date(LocalDate.now().minusMonths(1))
+                .build());
+        var championshipMember = ChampionshipMember.builder()
+                .championship(championship)
+                .member(member2)
+                .rank(2)
+                .build();
+        member2.getChampionships().add(championshipMember);
+        championship.getMembers().add(championshipMember);
+        championshipMemberRepository.save(championshipMember);
+        enitityManager.flush();
+
+        var snapshot = MemberSnapshot.load(enitityManager, LocalDate.now());
+        var database = DatabaseType.valueOf(databaseType);
+        var conditions = List.of(
+                new DisciplineCondition(discipline1.getId()),
+                new EventCondition(event.getId()),
+                new ChampionshipCondition(championship.getId(), 3),
+                new ChampionshipCondition(null, 1),
+                new NotCondition(new DisciplineCondition(discipline1.getId())));
+        var expected = List.of(
+                List.of(member2.getId()),
+                List.of(member1.getId()),
+                List.of(member2.getId()),
+                List.<Long>of(),
+                List.of(member1.getId()));
+
+        for (int i = 0; i < conditions.size(); i++) {
+            var condition = new MainCondition(conditions.get(i));
+
+            // the database and the in-memory evaluation must return the same members
+            for (var mode : SubqueryMode.values()) {
+                var memberIds = new ArrayList<Long>();
+                condition.getMembers(enitityManager, database, mode).forEach(member -> memberIds.add(member.getId()));
+                assertEquals(expected.get(i), memberIds);
+            }
+            assertEquals(expected.get(i), condition.getMemberIds(snapshot));
+        }
+
+        // a double negation is removed
+        var negation = new NotCondition(new NotCondition(new EventCondition(event.getId())));
+        assertEquals(new EventCondition(event.getId()), ConditionOptimizer.optimize(negation));
+    }
+
+    @Test
+    public void missing_values_are_negated_in_the_database_and_in_memory() {
+        var referenceDate = LocalDate.now();
+        var condition = new NotCondition(new AgeCondition(15, 100));
+
+        // the date of birth of member 1 is missing, member 2 is 10 and member 3 is 20 years old
+        var snapshot = new MemberSnapshot(
+                referenceDate,
+                new long[]{1L, 2L, 3L},
+                new long[]{
+                        NO_DATE,
+                        referenceDate.minusYears(10).toEpochDay(),
+                        referenceDate.minusYears(20).toEpochDay()},
+                new long[]{NO_DATE, NO_DATE, NO_DATE},
+                MemberSnapshot.Relation.empty(3),
+                MemberSnapshot.Relation.empty(3));
+
+        // the column is not nullable, so the members are selected from a derived table
+        var parameters = new ArrayList<Object>();
+        parameters.add(java.sql.Date.valueOf(referenceDate.minusYears(10)));
+        parameters.add(java.sql.Date.valueOf(referenceDate.minusYears(20)));
+        condition.addParameters(parameters, referenceDate);
+        var memberIds = jdbcTemplate.queryForList(
+                "SELECT member.id FROM (SELECT 1 AS id, CAST(NULL AS DATE) AS date_of_birth "
+                        + "UNION ALL SELECT 2, ? UNION ALL SELECT 3, ?) member WHERE "
+                        + condition.getSQLStatement(DatabaseType.valueOf(databaseType), SubqueryMode.CORRELATED)
+                        + " ORDER BY member.id",
+                Long.class,
+                parameters.toArray());
+
+        // a member without a date of birth does not match the age, so the negation matches
+        assertEquals(List.of(1L, 2L), memberIds);
+        assertEquals(memberIds, new MainCondition(condition).getMemberIds(snapshot));
+
+        // the result of the nested condition is not modified
+        var shared = new BitSet();
+        shared.set(2);
+        var negation = new NotCondition(new AgeCondition(15, 100) {
+            @Override
+            public BitSet evaluate(MemberSnapshot snapshot) {
+                return shared;
+            }
+        });
+        assertEquals(BitSet.valueOf(new long[]{0b011}), negation.evaluate(snapshot));
+        assertEquals(BitSet.valueOf(new long[]{0b100}), shared);
+    }
+
+    @Test
+    public void expensive_conditions_are_rejected() throws ConditionTooExpensiveException {
+        var cheap = new MainCondition(AndCondition.builder().conditions(new ArrayList<>() {{
+            add(new AgeCondition(10, 20));
+            add(new NotCondition(new GraduationCondition(1L, 1, YEAR)));
+        }}).build());
+        var expensive = new MainCondition(OrCondition.builder().conditions(new ArrayList<>() {{
+            add(new GraduationCondition(1L, 1, YEAR));
+            add(new SeminarCondition(1, SeminarType.LOCAL, 1, YEAR));
+            add(new EventCondition(1L));
+        }}).build());
+
+        // AND, age, NOT and graduation (a subquery)
+        var cost = ConditionCost.of(cheap.getCondition());
+        assertEquals(3, cost.getDepth());
+        assertEquals(4, cost.getBranches());
+        assertEquals(1, cost.getSubqueries());
+        assertEquals(4 + ConditionCost.SUBQUERY_WEIGHT, cost.getCost());
+
+        // accepted conditions get the timeout
+        var guard = new ConditionGuard(20, 3, 5);
+        guard.check(cheap);
+        assertEquals(5, cheap.compile(DatabaseType.valueOf(databaseType)).getTimeout());
+        assertEquals(5, cheap.compile(DatabaseType.valueOf(databaseType)).count().getTimeout());
+
+        try {
+            guard.check(expensive);
+            fail();
+        } catch (ConditionTooExpensiveException e) {
+            // expected
+        }
+
+        assertEquals(1, guard.getStatistics().getAccepted());
+        assertEquals(1, guard.getStatistics().getRejected());
+        assertEquals(0, guard.getStatistics().getTimeouts());
+    }
+
+    @Test
+    public void multiple_conditions_can_be_evaluated_at_once() {
+        setupEnvironment();
+
+        var snapshot = MemberSnapshot.load(enitityManager, LocalDate.now());
+
+        // both conditions share the graduation condition
+        var condition1 = new MainCondition(new GraduationCondition(graduation1.getId(), 3, MONTH));
+        var condition2 = MainCondition.builder()
+                .condition(OrCondition.builder().conditions(new ArrayList<>() {{
+                    add(new GraduationCondition(graduation1.getId(), 3, MONTH));
+                    add(new AgeCondition(21, 21));
+                }}).build()).build();
+        var condition3 = new MainCondition(new AgeCondition(19, 20));
+
+        var memberIds = MainCondition.getMemberIds(List.of(condition1, condition2, condition3), snapshot);
+        assertEquals(3, memberIds.size());
+        assertEquals(condition1.getMemberIds(snapshot), memberIds.get(0));
+        assertEquals(List.of(member1.getId(), member2.getId()), memberIds.get(1));
+        assertEquals(condition3.getMemberIds(snapshot), memberIds.get(2));
+    }
+
+    @Test
+    public void conditions_can_be_explained() {
+        setupEnvironment();
+
+        var condition = MainCondition.builder()
+                .condition(AndCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(15, Integer.MAX_VALUE));
+                    add(new MembershipCondition(6, MONTH));
+                }}).build()).build();
+
+        var explanation = new ConditionProfiler(
+                enitityManager,
+                DatabaseType.valueOf(databaseType),
+                SubqueryMode.CORRELATED,
+                LocalDate.now()).explain(condition);
+
+        assertEquals(condition.compile(DatabaseType.valueOf(databaseType)).getSql(), explanation.getSql());
+        assertFalse(explanation.getPlan().isEmpty());
+
+        // only member 2 matches both conditions, but both members are members for more than 6 months
+        var profile = explanation.getProfile();
+        assertEquals("AndCondition", profile.getType());
+        assertEquals(1, profile.getRows());
+        assertEquals(2, profile.getChildren().size());
+        assertEquals("AgeCondition", profile.getChildren().get(0).getType());
+        assertEquals(1, profile.getChildren().get(0).getRows());
+        assertEquals("MembershipCondition", profile.getChildren().get(1).getType());
+        assertEquals(2, profile.getChildren().get(1).getRows());
+    }
+
+    @Test
+    public void eligibility_can_be_forecast() {
+        // member 1 was born on a leap day and visited two local seminars and one regional seminar
+        var snapshot = new MemberSnapshot(
+                LocalDate.parse("2018-06-15"),
+                new long[]{1L, 2L},
+                new long[]{day("2008-02-29"), day("2000-01-01")},
+                new long[]{day("2017-01-01"), day("2018-05-01")},
+                new MemberSnapshot.Relation(new int[]{0, 0, 0}, new long[0], new long[0]),
+                new MemberSnapshot.Relation(
+                        new int[]{0, 3, 3},
+                        new long[]{SeminarType.LOCAL.ordinal(), SeminarType.LOCAL.ordinal(),
+                                SeminarType.REGIONAL.ordinal()},
+                        new long[]{day("2018-01-10"), day("2018-03-01"), day("2018-02-01")}));
+
+        // member 1 is 11 years old on March 1 (no leap year), member 2 is already too old
+        var condition1 = new MainCondition(new AgeCondition(11, 15));
+        assertArrayEquals(new long[]{day("2019-03-01"), NO_DATE}, condition1.forecast(snapshot));
+
+        // member 1 fulfills the condition already
+        var condition2 = new MainCondition(new AgeCondition(10, 10));
+        assertArrayEquals(new long[]{day("2018-06-15"), NO_DATE}, condition2.forecast(snapshot));
+
+        // the period is calculated since the second local seminar
+        var condition3 = new MainCondition(new SeminarCondition(2, SeminarType.LOCAL, 6, MONTH));
+        assertArrayEquals(new long[]{day("2018-09-01"), NO_DATE}, condition3.forecast(snapshot));
+
+        // all conditions must be fulfilled at the same time
+        var condition4 = MainCondition.builder()
+                .condition(AndCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(11, 15));
+                    add(new MembershipCondition(2, YEAR));
+                    add(new SeminarCondition(2, SeminarType.LOCAL, 6, MONTH));
+                }}).build()).build();
+        assertArrayEquals(new long[]{day("2019-03-01"), NO_DATE}, condition4.forecast(snapshot));
+
+        // the first fulfilled condition counts
+        var condition5 = MainCondition.builder()
+                .condition(OrCondition.builder().conditions(new ArrayList<>() {{
+                    add(new AgeCondition(30, 40));
+                    add(new MembershipCondition(2, YEAR));
+                }}).build()).build();
+        assertArrayEquals(new long[]{day("2019-01-01"), day("2020-05-01")}, condition5.forecast(snapshot));
+    }
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
 }
@@ -2,6 +2,9 @@ package de.shogundb.domain.discipline;
 
 import de.shogundb.TestHelper;
 import de.shogundb.domain.contributionClass.ContributionClassRepository;
+import de.shogundb.domain.eligibility.Eligibility;
+import de.shogundb.domain.eligibility.EligibilityRepository;
+import de.shogundb.domain.eligibility.EligibilityType;
 import de.shogundb.domain.exam.Exam;
 import de.shogundb.domain.exam.ExamRepository;
 import de.shogundb.domain.graduation.Graduation;
@@ -34,6 +37,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -51,6 +55,9 @@ public class DisciplineGraduationControllerTests {
     @Autowired
     private DisciplineRepository disciplineRepository;
 
+    @Autowired
+    private EligibilityRepository eligibilityRepository;
+
     @Autowired
     private GraduationMemberRepository graduationMemberRepository;
 
@@ -216,4 +223,78 @@ public class DisciplineGraduationControllerTests {
         assertEquals(0, updatedMember.getGraduations().size());
         assertEquals(0, updatedExam.getGraduationMembers().size());
     }
+
+    @Test
+    public void eligibilities_are_updated_with_the_graduation() throws Exception {
+        var member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+
+        Discipline discipline = disciplineRepository.save(Discipline.builder()
+                .name("Test Discipline")
+                .build());
+
+        Graduation graduation = Graduation.builder()
+                .name("First Test Graduation")
+                .color("Blue")
+                .examConditions("{\"type\":\"AGE\",\"minAge\":0,\"maxAge\":20}")
+                .build();
+
+        mockMvc.perform(post("/discipline/graduation/" + discipline.getId())
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(toJson(graduation)))
+                .andExpect(status().isCreated());
+
+        var graduationId = disciplineRepository.findById(discipline.getId())
+                .orElseThrow(DisciplineNotFoundException::new)
+                .getGraduations().get(0).getId();
+
+        // the eligibilities of the new graduation are calculated with the creation
+        assertTrue(isEligible(graduationId, member.getId()));
+
+        // the member is too young for the new conditions
+        mockMvc.perform(put("/discipline/graduation")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(toJson(GraduationUpdateDTO.builder()
+                        .id(graduationId)
+                        .name("Updated Test Graduation")
+                        .color("Red")
+                        .examConditions("{\"type\":\"AGE\",\"minAge\":30,\"maxAge\":40}")
+                        .build())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value(is("Updated Test Graduation")))
+                .andExpect(jsonPath("$.color").value(is("Red")));
+
+        assertFalse(isEligible(graduationId, member.getId()));
+
+        // the member fulfills the conditions again
+        mockMvc.perform(put("/discipline/graduation")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(toJson(GraduationUpdateDTO.builder()
+                        .id(graduationId)
+                        .name("Updated Test Graduation")
+                        .examConditions("{\"type\":\"AGE\",\"minAge\":0,\"maxAge\":20}")
+                        .build())))
+                .andExpect(status().isCreated());
+
+        assertTrue(isEligible(graduationId, member.getId()));
+
+        // the eligibilities are removed with the graduation
+        mockMvc.perform(delete("/discipline/graduation/" + graduationId))
+                .andExpect(status().isNoContent());
+
+        assertTrue(eligibilityRepository.findByGraduationIdAndType(graduationId, EligibilityType.EXAM).isEmpty());
+
+        mockMvc.perform(put("/discipline/graduation")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(toJson(GraduationUpdateDTO.builder()
+                        .id(graduationId)
+                        .name("Updated Test Graduation")
+                        .build())))
+                .andExpect(status().isNotFound());
+    }
+
+    private boolean isEligible(Long graduationId, Long memberId) {
+        return eligibilityRepository.findByGraduationIdAndType(graduationId, EligibilityType.EXAM).stream()
+                .map(Eligibility::getMemberId)
+                .anyMatch(memberId::equals);
+    }
 }
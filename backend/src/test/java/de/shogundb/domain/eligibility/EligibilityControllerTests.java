@@ -0,0 +1,246 @@
+package de.shogundb.domain.eligibility;
+
+import de.shogundb.TestHelper;
+import de.shogundb.domain.championship.Championship;
+import de.shogundb.domain.championship.ChampionshipRepository;
+import de.shogundb.domain.contributionClass.ContributionClassRepository;
+import de.shogundb.domain.event.Event;
+import de.shogundb.domain.event.EventRepository;
+import de.shogundb.domain.graduation.Graduation;
+import de.shogundb.domain.graduation.GraduationRepository;
+import de.shogundb.domain.member.Member;
+import de.shogundb.domain.member.MemberRepository;
+import de.shogundb.domain.seminar.Seminar;
+import de.shogundb.domain.seminar.SeminarRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles(profiles = "test")
+@AutoConfigureTestDatabase
+@Transactional
+public class EligibilityControllerTests {
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GraduationRepository graduationRepository;
+
+    @Autowired
+    private EligibilityService eligibilityService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ContributionClassRepository contributionClassRepository;
+
+    @Autowired
+    private SeminarRepository seminarRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ChampionshipRepository championshipRepository;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    public void eligibilities_can_be_calculated() throws Exception {
+        Member member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+
+        // create a graduation the member is eligible for and one the member is not eligible for
+        Graduation graduation1 = TestHelper.createTestGraduation();
+        graduation1.setExamConditions("{\"type\":\"AGE\",\"minAge\":0,\"maxAge\":20}");
+        graduation1 = graduationRepository.save(graduation1);
+
+        Graduation graduation2 = TestHelper.createTestGraduation();
+        graduation2.setExamConditions("{\"type\":\"AGE\",\"minAge\":30,\"maxAge\":40}");
+        graduationRepository.save(graduation2);
+
+        mockMvc.perform(post("/eligibility"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/eligibility/graduation/" + graduation1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(member.getId().intValue())));
+
+        mockMvc.perform(get("/eligibility/member/" + member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(graduation1.getId().intValue())));
+
+        mockMvc.perform(get("/eligibility/member/" + member.getId() + "?type=HIGHLIGHT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void eligibilities_of_changed_members_can_be_recalculated() throws Exception {
+        Member member1 = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+        Member member2 = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+
+        Graduation graduation = TestHelper.createTestGraduation();
+        graduation.setExamConditions("{\"type\":\"AGE\",\"minAge\":0,\"maxAge\":20}");
+        graduation = graduationRepository.save(graduation);
+
+        eligibilityService.recalculate();
+
+        mockMvc.perform(get("/eligibility/graduation/" + graduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        // age both members, but only recalculate the first one
+        member1.setDateOfBirth(LocalDate.now().minusYears(50));
+        member2.setDateOfBirth(LocalDate.now().minusYears(50));
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+
+        eligibilityService.recalculate(List.of(member1.getId()));
+
+        mockMvc.perform(get("/eligibility/graduation/" + graduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(member2.getId().intValue())));
+    }
+
+    @Test
+    public void eligibilities_are_recalculated_after_controller_writes() throws Exception {
+        Member member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+        Seminar seminar = seminarRepository.save(TestHelper.createTestSeminar());
+
+        Graduation graduation = TestHelper.createTestGraduation();
+        graduation.setExamConditions("{\"type\":\"SEMINAR\",\"quantity\":1,\"seminarType\":\"NATIONAL\","
+                + "\"period\":1,\"periodFormat\":\"YEAR\"}");
+        graduation = graduationRepository.save(graduation);
+
+        eligibilityService.recalculate();
+
+        mockMvc.perform(get("/eligibility/graduation/" + graduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        // the member visits the seminar
+        mockMvc.perform(post("/seminar/member/" + seminar.getId() + "/" + member.getId()))
+                .andExpect(status().isCreated());
+
+        // the member is marked as changed after the commit (the transaction of the test is never committed)
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        eligibilityService.recalculateDirty();
+
+        mockMvc.perform(get("/eligibility/graduation/" + graduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(member.getId().intValue())));
+    }
+
+    @Test
+    public void eligibilities_are_recalculated_after_event_and_championship_writes() throws Exception {
+        Member member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+        Event event = eventRepository.save(Event.builder().name("Test Event").date(LocalDate.now()).build());
+        Championship championship = championshipRepository.save(Championship.builder()
+                .name("Test Championship")
+                .date(LocalDate.now())
+                .build());
+
+        Graduation eventGraduation = TestHelper.createTestGraduation();
+        eventGraduation.setExamConditions("{\"type\":\"EVENT\",\"id\":" + event.getId() + "}");
+        eventGraduation = graduationRepository.save(eventGraduation);
+
+        Graduation championshipGraduation = TestHelper.createTestGraduation();
+        championshipGraduation.setExamConditions(
+                "{\"type\":\"CHAMPIONSHIP\",\"id\":" + championship.getId() + ",\"rank\":3}");
+        championshipGraduation = graduationRepository.save(championshipGraduation);
+
+        eligibilityService.recalculate();
+
+        // the member participates in the event and reaches the first place at the championship
+        mockMvc.perform(post("/event/member/" + event.getId() + "/" + member.getId()))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/championship/member/" + championship.getId())
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"memberId\":" + member.getId() + ",\"rank\":1}"))
+                .andExpect(status().isCreated());
+
+        // the member is marked as changed after the commit (the transaction of the test is never committed)
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        eligibilityService.recalculateDirty();
+
+        mockMvc.perform(get("/eligibility/graduation/" + eventGraduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(member.getId().intValue())));
+        mockMvc.perform(get("/eligibility/graduation/" + championshipGraduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        // the member is removed from the event
+        mockMvc.perform(delete("/event/member/" + event.getId() + "/" + member.getId()))
+                .andExpect(status().isOk());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        eligibilityService.recalculateDirty();
+
+        mockMvc.perform(get("/eligibility/graduation/" + eventGraduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void eligibility_can_be_forecast() throws Exception {
+        Member member = memberRepository.save(TestHelper.createTestMember(contributionClassRepository));
+
+        Graduation graduation = TestHelper.createTestGraduation();
+        graduation.setExamConditions("{\"type\":\"AGE\",\"minAge\":30,\"maxAge\":40}");
+        graduation = graduationRepository.save(graduation);
+
+        // the member was born on 2018-01-02
+        mockMvc.perform(get("/eligibility/forecast/graduation/" + graduation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].memberId", is(member.getId().intValue())))
+                .andExpect(jsonPath("$[0].date", is("2048-01-02")));
+
+        mockMvc.perform(get("/eligibility/forecast/graduation/" + graduation.getId() + "/member/" + member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date", is("2048-01-02")));
+    }
+
+    @Test
+    public void eligibilities_of_unknown_graduation_can_not_be_called() throws Exception {
+        mockMvc.perform(get("/eligibility/graduation/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -33,6 +33,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -85,6 +87,9 @@ public class MemberControllerTests {
     @Autowired
     private WebApplicationContext webApplicationContext;
 
+    @PersistenceContext
+    private EntityManager enitityManager;
+
     private MockMvc mockMvc;
 
     @Before
@@ -530,4 +535,45 @@ public class MemberControllerTests {
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$").value(hasSize(0)));
     }
+
+    @Test
+    public void member_lists_contain_only_the_disciplines() throws Exception {
+        Member member = memberRepository.save(createTestMember(contributionClassRepository));
+
+        // add the member to a discipline and a seminar
+        var discipline = disciplineRepository.save(Discipline.builder()
+                .name("Test Discipline")
+                .build());
+        discipline.getMembers().add(member);
+        member.getDisciplines().add(discipline);
+
+        var seminar = seminarRepository.save(createTestSeminar());
+        seminar.getMembers().add(member);
+        member.getSeminars().add(seminar);
+
+        // load the lists from the database
+        enitityManager.flush();
+        enitityManager.clear();
+
+        mockMvc.perform(get("/member"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(is(member.getId().intValue())))
+                .andExpect(jsonPath("$[0].contributionClass.name").value(is("Test")))
+                .andExpect(jsonPath("$[0].disciplines", hasSize(1)))
+                .andExpect(jsonPath("$[0].disciplines[0].name").value(is("Test Discipline")))
+                .andExpect(jsonPath("$[0].seminars").doesNotExist())
+                .andExpect(jsonPath("$[0].graduations").doesNotExist());
+
+        mockMvc.perform(get("/member/byName/max must"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].disciplines[0].name").value(is("Test Discipline")))
+                .andExpect(jsonPath("$[0].seminars").doesNotExist());
+
+        // the detail endpoint still returns the full member
+        mockMvc.perform(get("/member/" + member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.seminars", hasSize(1)));
+    }
 }
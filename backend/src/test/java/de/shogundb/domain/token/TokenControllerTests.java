@@ -0,0 +1,485 @@
+package de.shogundb.domain.token;
+
+import de.shogundb.authentication.TokenFilter;
+import de.shogundb.domain.user.User;
+import de.shogundb.domain.user.UserRepository;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.MySQL5Dialect;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles(profiles = "test")
+@AutoConfigureTestDatabase
+@Transactional
+public class TokenControllerTests {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private SignedTokenService signedTokenService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenSweeper tokenSweeper;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private TokenFilter tokenFilter;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @PersistenceContext
+    private EntityManager enitityManager;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.tokenCache.clear();
+        this.loginThrottle.clear();
+    }
+
+    @Test
+    public void tokens_are_cached_until_they_are_deleted() throws Exception {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        Token token = tokenService.generate(user);
+
+        // count the database lookups
+        var lookups = new AtomicInteger();
+        Function<String, Optional<Token>> loader = plainToken -> {
+            lookups.incrementAndGet();
+            return tokenRepository.findByToken(plainToken);
+        };
+
+        // a valid token is loaded only once
+        for (int i = 0; i < 3; i++) {
+            var cachedToken = tokenCache.get(token.getToken(), loader);
+            assertTrue(cachedToken.isPresent());
+            assertEquals(user.getId(), cachedToken.get().getUserId());
+            assertEquals("test", cachedToken.get().getUsername());
+        }
+        assertEquals(1, lookups.get());
+
+        // an unknown token is loaded only once, too
+        assertFalse(tokenCache.get("unknown", loader).isPresent());
+        assertFalse(tokenCache.get("unknown", loader).isPresent());
+        assertEquals(2, lookups.get());
+
+        // a deleted token is removed from the cache
+        mockMvc.perform(delete("/token/" + token.getToken()))
+                .andExpect(status().isNoContent());
+
+        assertFalse(tokenCache.get(token.getToken(), loader).isPresent());
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void cached_tokens_are_evicted_when_the_user_is_updated() throws Exception {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        Token token = tokenService.generate(user);
+
+        var lookups = new AtomicInteger();
+        Function<String, Optional<Token>> loader = plainToken -> {
+            lookups.incrementAndGet();
+            return tokenRepository.findByToken(plainToken);
+        };
+        assertTrue(tokenCache.get(token.getToken(), loader).isPresent());
+        assertEquals(1, lookups.get());
+
+        // update the user
+        mockMvc.perform(put("/user")
+                .header("Authorization", "Bearer " + token.getToken())
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"id\":" + user.getId() + ",\"email\":\"new@email.com\"}"))
+                .andExpect(status().isCreated());
+
+        // the token is loaded again
+        assertTrue(tokenCache.get(token.getToken(), loader).isPresent());
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void tokens_authenticate_the_user() throws Exception {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        Token token = tokenService.generate(user);
+
+        try {
+            // with a valid token
+            var request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer " + token.getToken());
+            tokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            var authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertNotNull(authentication);
+            assertTrue(authentication.isAuthenticated());
+            assertEquals("test", authentication.getName());
+            SecurityContextHolder.clearContext();
+
+            // with an unknown token
+            request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer unknown");
+            tokenFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    public void only_the_digest_of_tokens_is_stored() {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        Token token = tokenService.generate(user);
+
+        // the client gets the plain token
+        assertNotNull(token.getToken());
+        assertEquals(32, token.getHash().length);
+        assertArrayEquals(Token.hash(token.getToken()), token.getHash());
+
+        // the token can be found by the plain token
+        var storedToken = tokenRepository.findByToken(token.getToken());
+        assertTrue(storedToken.isPresent());
+        assertEquals(token.getId(), storedToken.get().getId());
+        assertFalse(tokenRepository.findByToken(token.getToken() + "x").isPresent());
+
+        // every token is unique
+        assertNotEquals(token.getToken(), tokenService.generate(user).getToken());
+    }
+
+    @Test
+    public void signed_tokens_are_verified_and_revoked() throws Exception {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        var expireDate = new Date(System.currentTimeMillis() + 60_000);
+        var token = signedTokenService.sign(user, expireDate);
+
+        // a valid token carries the user
+        var signedToken = signedTokenService.verify(token);
+        assertTrue(signedToken.isPresent());
+        assertEquals(user.getId(), signedToken.get().getUserId());
+        assertEquals("test", signedToken.get().getUsername());
+        assertEquals(expireDate, signedToken.get().getExpireDate());
+        mockMvc.perform(head("/token/" + token))
+                .andExpect(status().isOk());
+
+        // a modified token is invalid
+        var modifiedToken = (token.startsWith("A") ? "B" : "A") + token.substring(1);
+        assertFalse(signedTokenService.verify(modifiedToken).isPresent());
+        assertFalse(signedTokenService.verify("invalid.token").isPresent());
+
+        // an expired token is not valid anymore
+        var expiredToken = signedTokenService.sign(user, new Date(System.currentTimeMillis() - 1000));
+        mockMvc.perform(head("/token/" + expiredToken))
+                .andExpect(status().isUnauthorized());
+
+        // a deleted token is revoked
+        mockMvc.perform(delete("/token/" + token))
+                .andExpect(status().isNoContent());
+        assertFalse(signedTokenService.verify(token).isPresent());
+        mockMvc.perform(head("/token/" + token))
+                .andExpect(status().isUnauthorized());
+
+        // the revocation list survives a reload
+        signedTokenService.reload();
+        assertFalse(signedTokenService.verify(token).isPresent());
+    }
+
+    @Test
+    public void expired_tokens_are_swept() {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        Token validToken = tokenService.generate(user);
+        for (int i = 0; i < 3; i++) {
+            tokenService.generate(user, new Date(System.currentTimeMillis() - 1000));
+        }
+
+        // the tokens are deleted with bulk queries, which bypass the loaded entities
+        enitityManager.flush();
+        enitityManager.clear();
+
+        // delete the expired tokens in batches of two tokens
+        assertEquals(2, tokenService.deleteExpired(2));
+        assertEquals(1, tokenService.deleteExpired(2));
+        assertEquals(0, tokenService.deleteExpired(2));
+
+        // only the valid token is left
+        assertEquals(1, tokenRepository.count());
+        assertTrue(tokenRepository.findByToken(validToken.getToken()).isPresent());
+
+        // the sweeper counts the removed tokens
+        user = userRepository.findById(user.getId()).get();
+        tokenService.generate(user, new Date(System.currentTimeMillis() - 1000));
+        enitityManager.flush();
+        enitityManager.clear();
+
+        var removed = tokenSweeper.getStatistics().getRemoved();
+        tokenSweeper.sweep();
+        assertEquals(1, tokenSweeper.getStatistics().getLastRemoved());
+        assertEquals(removed + 1, tokenSweeper.getStatistics().getRemoved());
+        assertNotNull(tokenSweeper.getStatistics().getLastRun());
+    }
+
+    @Test
+    public void token_hashes_have_a_unique_index_under_mysql() throws Exception {
+        var ddl = generateMySqlSchema(Token.class, User.class, RevokedToken.class);
+
+        assertTrue(ddl.contains("hash BINARY(32)"));
+        assertTrue(ddl.matches("(?is).*alter table token add constraint \\w+ unique \\(hash\\).*"));
+        assertTrue(ddl.matches("(?is).*alter table revokedtoken add constraint \\w+ unique \\(hash\\).*"));
+    }
+
+    @Test
+    public void logins_are_throttled() throws Exception {
+        userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+
+        // a valid login
+        mockMvc.perform(post("/token")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"username\":\"test\",\"password\":\"testpass\"}"))
+                .andExpect(status().isOk());
+
+        // five failed logins
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/token")
+                    .contentType(APPLICATION_JSON_UTF8)
+                    .content("{\"username\":\"test\",\"password\":\"wrong\"}"))
+                    .andExpect(status().isNotFound());
+        }
+
+        // further logins of the user are rejected (even with the valid password)
+        mockMvc.perform(post("/token")
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"username\":\"test\",\"password\":\"testpass\"}"))
+                .andExpect(status().isTooManyRequests());
+
+        // the user is not locked out from other addresses
+        mockMvc.perform(post("/token")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                })
+                .contentType(APPLICATION_JSON_UTF8)
+                .content("{\"username\":\"test\",\"password\":\"testpass\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void login_attempts_are_reserved_before_the_verification() throws Exception {
+        var throttle = new LoginThrottle(2, 3, 300, new String[0]);
+
+        // two concurrent logins of the user, the third one is rejected before its password is verified
+        throttle.reserve("test", "10.0.0.1");
+        throttle.reserve("test", "10.0.0.1");
+        try {
+            throttle.reserve("test", "10.0.0.1");
+            fail();
+        } catch (LoginThrottledException e) {
+            // expected
+        }
+
+        // a successful login resets the failures of the user and takes back the attempt of the address
+        throttle.succeeded("test", "10.0.0.1");
+        throttle.reserve("test", "10.0.0.1");
+
+        // a login, whose password could not be verified, is taken back, too
+        throttle.cancelled("test", "10.0.0.1");
+        throttle.reserve("other", "10.0.0.1");
+        throttle.reserve("other", "10.0.0.1");
+
+        // the address has reached its limit
+        try {
+            throttle.reserve("another", "10.0.0.1");
+            fail();
+        } catch (LoginThrottledException e) {
+            // expected
+        }
+        throttle.reserve("test", "10.0.0.2");
+    }
+
+    @Test
+    public void forwarded_addresses_are_only_trusted_from_proxies() {
+        var throttle = new LoginThrottle(5, 20, 300, new String[]{"10.0.0.1", "10.0.0.2"});
+
+        // the request was sent by the client itself
+        var request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.0.1");
+        request.addHeader("X-Forwarded-For", "192.168.0.2");
+        assertEquals("192.168.0.1", throttle.getClientAddress(request));
+
+        // the request was forwarded by two trusted proxies, the first entry was set by the client
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 192.168.0.2, 10.0.0.2");
+        assertEquals("192.168.0.2", throttle.getClientAddress(request));
+
+        // without a header the proxy is the client
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        assertEquals("10.0.0.1", throttle.getClientAddress(request));
+    }
+
+    @Test
+    public void signed_tokens_of_deleted_users_are_revoked() throws Exception {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+        var token = signedTokenService.sign(user, new Date(System.currentTimeMillis() + 60_000));
+        var otherToken = signedTokenService.sign(user, new Date(System.currentTimeMillis() + 60_000));
+
+        // the user deletes itself
+        mockMvc.perform(delete("/user/" + user.getId())
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        // all tokens of the user are rejected (also after a reload)
+        assertFalse(signedTokenService.verify(token).isPresent());
+        assertFalse(signedTokenService.verify(otherToken).isPresent());
+        signedTokenService.reload();
+        assertFalse(signedTokenService.verify(otherToken).isPresent());
+    }
+
+    @Test
+    public void signed_tokens_are_not_valid_longer_than_the_maximum_age() {
+        User user = userRepository.save(
+                User.builder()
+                        .username("test")
+                        .password(BCrypt.hashpw("testpass", BCrypt.gensalt()))
+                        .email("test@email.com")
+                        .build());
+
+        // the expire date is limited to the maximum age (one day)
+        var token = signedTokenService.sign(user, new Date(System.currentTimeMillis() + 7 * 86_400_000L));
+        var signedToken = signedTokenService.verify(token);
+        assertTrue(signedToken.isPresent());
+        assertTrue(signedToken.get().getExpireDate().getTime() <= System.currentTimeMillis() + 86_400_000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void short_secrets_are_rejected() {
+        new SignedTokenService(revokedTokenRepository, Base64.getEncoder().encodeToString(new byte[16]), 86400);
+    }
+
+    /**
+     * Generates the create script of the given entities under the MySQL dialect (without a database connection).
+     *
+     * @param entities the entity classes
+     * @return the generated ddl
+     * @throws IOException thrown, if the script could not be written
+     */
+    private static String generateMySqlSchema(Class<?>... entities) throws IOException {
+        var registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, MySQL5Dialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .build();
+        try {
+            var sources = new MetadataSources(registry);
+            for (var entity : entities) {
+                sources.addAnnotatedClass(entity);
+            }
+
+            var script = Files.createTempFile("schema", ".sql");
+            try {
+                new SchemaExport()
+                        .setOutputFile(script.toString())
+                        .setDelimiter(";")
+                        .createOnly(EnumSet.of(TargetType.SCRIPT), sources.buildMetadata());
+                return Files.readString(script);
+            } finally {
+                Files.delete(script);
+            }
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
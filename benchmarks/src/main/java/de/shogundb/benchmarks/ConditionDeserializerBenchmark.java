@@ -0,0 +1,47 @@
+package de.shogundb.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.shogundb.conditions.ConditionCodec;
+import de.shogundb.conditions.statements.Condition;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to read the stored conditions of a graduation, either as json or in the compact encoded
+ * form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionDeserializerBenchmark {
+    @Param({"1", "8", "64"})
+    public int width;
+
+    private ObjectMapper objectMapper;
+    private String json;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        var condition = ConditionTrees.graduationConditions(width);
+
+        objectMapper = new ObjectMapper();
+        json = ConditionTrees.toJson(condition);
+        encoded = ConditionCodec.encode(condition);
+    }
+
+    @Benchmark
+    public Condition json() throws IOException {
+        return objectMapper.readValue(json, Condition.class);
+    }
+
+    @Benchmark
+    public Condition encoded() {
+        return ConditionCodec.decode(encoded);
+    }
+}
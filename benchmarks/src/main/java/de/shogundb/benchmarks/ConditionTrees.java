@@ -0,0 +1,80 @@
+package de.shogundb.benchmarks;
+
+import de.shogundb.conditions.PeriodFormat;
+import de.shogundb.conditions.statements.*;
+import de.shogundb.domain.seminar.SeminarType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds condition trees like the ones of the graduations of a club. A graduation can be reached on several ways, so
+ * the tree is an OR of blocks, each requiring an age range, a membership period, a previous graduation and some
+ * visited seminars.
+ */
+public class ConditionTrees {
+    private ConditionTrees() {
+    }
+
+    /**
+     * Builds a condition tree with the given number of blocks. The blocks differ in their values, so the optimizer can
+     * not merge them.
+     *
+     * @param width the number of blocks of the OR condition
+     * @return the condition tree
+     */
+    public static Condition graduationConditions(int width) {
+        var blocks = new ArrayList<Condition>();
+        for (int block = 0; block < width; block++) {
+            var seminarTypes = SeminarType.values();
+
+            blocks.add(new AndCondition(List.of(
+                    new AgeCondition(6 + block % 10, 20 + block),
+                    new MembershipCondition(1 + block % 5, PeriodFormat.YEAR),
+                    new GraduationCondition(
+                            (long) (1 + block % SyntheticClub.GRADUATIONS), 3 + block, PeriodFormat.MONTH),
+                    new OrCondition(List.of(
+                            new SeminarCondition(1 + block % 3, seminarTypes[block % seminarTypes.length],
+                                    1 + block % 4, PeriodFormat.YEAR),
+                            new SeminarCondition(1, seminarTypes[(block + 1) % seminarTypes.length],
+                                    6 + block, PeriodFormat.MONTH))))));
+        }
+        return new OrCondition(blocks);
+    }
+
+    /**
+     * Writes the given condition tree as json like the frontend does (every condition has a type field).
+     *
+     * @param condition the condition tree
+     * @return the json of the condition tree
+     */
+    public static String toJson(Condition condition) {
+        if (condition instanceof AgeCondition) {
+            var age = (AgeCondition) condition;
+            return String.format("{\"type\":\"AGE\",\"minAge\":%d,\"maxAge\":%d}", age.getMinAge(), age.getMaxAge());
+        } else if (condition instanceof AndCondition) {
+            return "{\"type\":\"AND\",\"conditions\":" + toJson(((AndCondition) condition).getConditions()) + "}";
+        } else if (condition instanceof OrCondition) {
+            return "{\"type\":\"OR\",\"conditions\":" + toJson(((OrCondition) condition).getConditions()) + "}";
+        } else if (condition instanceof MembershipCondition) {
+            var membership = (MembershipCondition) condition;
+            return String.format("{\"type\":\"MEMBERSHIP\",\"period\":%d,\"periodFormat\":\"%s\"}",
+                    membership.getPeriod(), membership.getPeriodFormat());
+        } else if (condition instanceof GraduationCondition) {
+            var graduation = (GraduationCondition) condition;
+            return String.format("{\"type\":\"GRADUATION\",\"id\":%d,\"period\":%d,\"periodFormat\":\"%s\"}",
+                    graduation.getId(), graduation.getPeriod(), graduation.getPeriodFormat());
+        } else if (condition instanceof SeminarCondition) {
+            var seminar = (SeminarCondition) condition;
+            return String.format("{\"type\":\"SEMINAR\",\"quantity\":%d,\"seminarType\":\"%s\",\"period\":%d,"
+                            + "\"periodFormat\":\"%s\"}",
+                    seminar.getQuantity(), seminar.getSeminarType(), seminar.getPeriod(), seminar.getPeriodFormat());
+        }
+        throw new IllegalArgumentException("Unsupported condition " + condition);
+    }
+
+    private static String toJson(List<Condition> conditions) {
+        return conditions.stream().map(ConditionTrees::toJson).collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -0,0 +1,82 @@
+package de.shogundb.benchmarks;
+
+import de.shogundb.conditions.ConditionResultCache;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.MainCondition;
+import de.shogundb.conditions.SubqueryMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the evaluation of a condition tree against a synthetic club in an embedded H2 database, either by a single
+ * query, by executing the branches of the tree in parallel or in memory against a snapshot of all members.
+ * <p>
+ * Loading the largest club takes a while and needs a larger heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EvaluationBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int members;
+
+    @Param({"4", "16"})
+    public int width;
+
+    private SyntheticClub club;
+    private MainCondition condition;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        club = new SyntheticClub("club" + members, members, LocalDate.now());
+        condition = new MainCondition(ConditionTrees.graduationConditions(width));
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        club.drop();
+    }
+
+    @Benchmark
+    public List<Long> correlated() {
+        return query(SubqueryMode.CORRELATED);
+    }
+
+    @Benchmark
+    public List<Long> semiJoin() {
+        return query(SubqueryMode.SEMI_JOIN);
+    }
+
+    @Benchmark
+    public List<Long> parallel() {
+        // the results are cached, so every invocation must start with an empty cache
+        ConditionResultCache.invalidate();
+
+        return condition.getMemberIds(club.getJdbcTemplate(), executor, DatabaseType.H2, SubqueryMode.SEMI_JOIN);
+    }
+
+    @Benchmark
+    public List<Long> snapshot() {
+        return condition.getMemberIds(club.getSnapshot());
+    }
+
+    private List<Long> query(SubqueryMode subqueryMode) {
+        var query = condition.compile(DatabaseType.H2, subqueryMode).ids();
+
+        return club.getJdbcTemplate().query(
+                query.getSql(),
+                query::bindParameters,
+                (resultSet, row) -> resultSet.getLong(1));
+    }
+}
@@ -0,0 +1,56 @@
+package de.shogundb.benchmarks;
+
+import de.shogundb.conditions.ConditionQuery;
+import de.shogundb.conditions.DatabaseType;
+import de.shogundb.conditions.MainCondition;
+import de.shogundb.conditions.SubqueryMode;
+import de.shogundb.conditions.statements.Condition;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the translation of condition trees to sql. The compiled statements are cached by the shape of the tree,
+ * so the cached benchmarks measure the optimizer and the parameter binding, while the uncached benchmark builds the
+ * whole statement every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlGenerationBenchmark {
+    @Param({"4", "16", "64"})
+    public int width;
+
+    @Param({"CORRELATED", "SEMI_JOIN"})
+    public SubqueryMode subqueryMode;
+
+    private Condition condition;
+    private MainCondition mainCondition;
+    private LocalDate referenceDate;
+
+    @Setup
+    public void setup() {
+        condition = ConditionTrees.graduationConditions(width);
+        mainCondition = new MainCondition(condition);
+        referenceDate = LocalDate.now();
+    }
+
+    @Benchmark
+    public String getSQLQuery() {
+        return mainCondition.getSQLQuery(DatabaseType.MYSQL, subqueryMode);
+    }
+
+    @Benchmark
+    public ConditionQuery compile() {
+        return mainCondition.compile(DatabaseType.MYSQL, subqueryMode, referenceDate);
+    }
+
+    @Benchmark
+    public String getSQLStatement() {
+        return condition.getSQLStatement(DatabaseType.MYSQL, subqueryMode);
+    }
+}
@@ -0,0 +1,253 @@
+package de.shogundb.benchmarks;
+
+import de.shogundb.conditions.MemberSnapshot;
+import de.shogundb.domain.seminar.SeminarType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic club, which is loaded into an embedded H2 database. The schema only contains the tables and columns the
+ * conditions depend on. The data is generated with a fixed seed, so every run measures the same club.
+ * <p>
+ * Every member has a few graduations, visits seminars and belongs to one or two disciplines. The same data is also
+ * kept as a MemberSnapshot, so the in-memory evaluation can be measured without loading the snapshot.
+ */
+public class SyntheticClub {
+    /**
+     * The number of graduations (ids 1 to GRADUATIONS).
+     */
+    public static final int GRADUATIONS = 5;
+
+    /**
+     * The number of disciplines (ids 1 to DISCIPLINES).
+     */
+    public static final int DISCIPLINES = 5;
+
+    /**
+     * The number of rows inserted with one batch.
+     */
+    private static final int BATCH_SIZE = 10_000;
+
+    private final LocalDate referenceDate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberSnapshot snapshot;
+
+    /**
+     * Creates the schema in a new in-memory database and inserts the members.
+     *
+     * @param name          the name of the in-memory database
+     * @param members       the number of members
+     * @param referenceDate the date the data is generated relative to (usually today)
+     */
+    public SyntheticClub(String name, int members, LocalDate referenceDate) {
+        this.referenceDate = referenceDate;
+        this.jdbcTemplate = new JdbcTemplate(createDataSource(name));
+
+        createSchema();
+        this.snapshot = insertMembers(members, new Random(42));
+    }
+
+    /**
+     * Returns a jdbc template to execute queries against the club.
+     *
+     * @return the jdbc template
+     */
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * Returns a snapshot with the same data as the database.
+     *
+     * @return the snapshot of all members
+     */
+    public MemberSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Drops all tables of the club.
+     */
+    public void drop() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private static DataSource createDataSource(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+
+        return dataSource;
+    }
+
+    private void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE member (id BIGINT PRIMARY KEY, forename VARCHAR(255), "
+                + "surname VARCHAR(255), date_of_birth DATE, entered_date DATE)");
+        jdbcTemplate.execute("CREATE INDEX member_date_of_birth_index ON member (date_of_birth)");
+        jdbcTemplate.execute("CREATE INDEX member_entered_date_index ON member (entered_date)");
+
+        jdbcTemplate.execute("CREATE TABLE exam (id BIGINT PRIMARY KEY, date DATE)");
+        jdbcTemplate.execute("CREATE TABLE graduation_member (id BIGINT PRIMARY KEY, graduation_id BIGINT, "
+                + "member_id BIGINT, exam_id BIGINT)");
+        jdbcTemplate.execute("CREATE INDEX graduation_member_member_index ON graduation_member (member_id)");
+        jdbcTemplate.execute("CREATE INDEX graduation_member_graduation_index ON graduation_member (graduation_id)");
+
+        jdbcTemplate.execute("CREATE TABLE seminar (id BIGINT PRIMARY KEY, seminar_type INT, date_to DATE)");
+        jdbcTemplate.execute("CREATE TABLE seminar_members (seminar_id BIGINT, member_id BIGINT, "
+                + "PRIMARY KEY (seminar_id, member_id))");
+        jdbcTemplate.execute("CREATE INDEX seminar_members_member_index ON seminar_members (member_id)");
+
+        jdbcTemplate.execute("CREATE TABLE discipline_members (discipline_id BIGINT, member_id BIGINT, "
+                + "PRIMARY KEY (discipline_id, member_id))");
+        jdbcTemplate.execute("CREATE TABLE event (id BIGINT PRIMARY KEY, date DATE)");
+        jdbcTemplate.execute("CREATE TABLE event_members (event_id BIGINT, member_id BIGINT, "
+                + "PRIMARY KEY (event_id, member_id))");
+        jdbcTemplate.execute("CREATE TABLE championship (id BIGINT PRIMARY KEY, date DATE)");
+        jdbcTemplate.execute("CREATE TABLE championship_member (id BIGINT PRIMARY KEY, championship_id BIGINT, "
+                + "member_id BIGINT, rank INT)");
+    }
+
+    private MemberSnapshot insertMembers(int members, Random random) {
+        // one exam per month and one seminar per week of the last ten years
+        var exams = 120;
+        var seminars = 520;
+        var seminarTypes = new int[seminars + 1];
+        for (int exam = 1; exam <= exams; exam++) {
+            jdbcTemplate.update("INSERT INTO exam (id, date) VALUES (?, ?)",
+                    exam, Date.valueOf(referenceDate.minusMonths(exam)));
+        }
+        for (int seminar = 1; seminar <= seminars; seminar++) {
+            seminarTypes[seminar] = random.nextInt(SeminarType.values().length);
+            jdbcTemplate.update("INSERT INTO seminar (id, seminar_type, date_to) VALUES (?, ?, ?)",
+                    seminar, seminarTypes[seminar], Date.valueOf(referenceDate.minusWeeks(seminar)));
+        }
+
+        var ids = new long[members];
+        var datesOfBirth = new long[members];
+        var enteredDates = new long[members];
+        var graduations = new RelationBuilder(members);
+        var seminarVisits = new RelationBuilder(members);
+        var disciplines = new RelationBuilder(members);
+
+        var memberRows = new ArrayList<Object[]>();
+        var graduationRows = new ArrayList<Object[]>();
+        var seminarRows = new ArrayList<Object[]>();
+        var disciplineRows = new ArrayList<Object[]>();
+        long graduationMemberId = 0;
+
+        for (int row = 0; row < members; row++) {
+            long id = row + 1;
+            var dateOfBirth = referenceDate.minusDays(5 * 365 + random.nextInt(65 * 365));
+            var enteredDate = referenceDate.minusDays(random.nextInt(20 * 365));
+
+            ids[row] = id;
+            datesOfBirth[row] = dateOfBirth.toEpochDay();
+            enteredDates[row] = enteredDate.toEpochDay();
+            memberRows.add(new Object[]{id, "Forename " + id, "Surname " + id,
+                    Date.valueOf(dateOfBirth), Date.valueOf(enteredDate)});
+
+            // the graduations are achieved in order, one exam after another
+            var graduationCount = random.nextInt(GRADUATIONS + 1);
+            var exam = exams;
+            for (int graduation = 1; graduation <= graduationCount; graduation++) {
+                exam -= 1 + random.nextInt(Math.max(1, exam / 2));
+                if (exam < 1) {
+                    break;
+                }
+                graduationRows.add(new Object[]{++graduationMemberId, graduation, id, exam});
+                graduations.add(graduation, referenceDate.minusMonths(exam).toEpochDay());
+            }
+
+            // every member visits a few distinct seminars
+            var visits = random.nextInt(11);
+            var seminar = 0;
+            for (int visit = 0; visit < visits; visit++) {
+                seminar += 1 + random.nextInt(50);
+                if (seminar > seminars) {
+                    break;
+                }
+                seminarRows.add(new Object[]{seminar, id});
+                seminarVisits.add(seminarTypes[seminar], referenceDate.minusWeeks(seminar).toEpochDay());
+            }
+
+            var discipline = 1 + random.nextInt(DISCIPLINES);
+            disciplineRows.add(new Object[]{discipline, id});
+            disciplines.add(discipline, MemberSnapshot.NO_DATE);
+
+            graduations.next();
+            seminarVisits.next();
+            disciplines.next();
+
+            if (memberRows.size() >= BATCH_SIZE) {
+                flush(memberRows, graduationRows, seminarRows, disciplineRows);
+            }
+        }
+        flush(memberRows, graduationRows, seminarRows, disciplineRows);
+
+        return new MemberSnapshot(
+                referenceDate,
+                ids,
+                datesOfBirth,
+                enteredDates,
+                graduations.build(),
+                seminarVisits.build(),
+                disciplines.build(),
+                MemberSnapshot.Relation.empty(members),
+                MemberSnapshot.Relation.empty(members));
+    }
+
+    private void flush(
+            List<Object[]> memberRows,
+            List<Object[]> graduationRows,
+            List<Object[]> seminarRows,
+            List<Object[]> disciplineRows) {
+        jdbcTemplate.batchUpdate("INSERT INTO member (id, forename, surname, date_of_birth, entered_date) "
+                + "VALUES (?, ?, ?, ?, ?)", memberRows);
+        jdbcTemplate.batchUpdate("INSERT INTO graduation_member (id, graduation_id, member_id, exam_id) "
+                + "VALUES (?, ?, ?, ?)", graduationRows);
+        jdbcTemplate.batchUpdate("INSERT INTO seminar_members (seminar_id, member_id) VALUES (?, ?)", seminarRows);
+        jdbcTemplate.batchUpdate("INSERT INTO discipline_members (discipline_id, member_id) VALUES (?, ?)",
+                disciplineRows);
+
+        memberRows.clear();
+        graduationRows.clear();
+        seminarRows.clear();
+        disciplineRows.clear();
+    }
+
+    /**
+     * Collects the entries of a relation member by member (in the order of the rows of the snapshot).
+     */
+    private static class RelationBuilder {
+        private final int[] offsets;
+        private final List<Long> keys = new ArrayList<>();
+        private final List<Long> dates = new ArrayList<>();
+        private int row = 0;
+
+        RelationBuilder(int members) {
+            this.offsets = new int[members + 1];
+        }
+
+        void add(long key, long date) {
+            keys.add(key);
+            dates.add(date);
+        }
+
+        void next() {
+            offsets[++row] = keys.size();
+        }
+
+        MemberSnapshot.Relation build() {
+            return new MemberSnapshot.Relation(
+                    offsets,
+                    keys.stream().mapToLong(Long::longValue).toArray(),
+                    dates.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+}